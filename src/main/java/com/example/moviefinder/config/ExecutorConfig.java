@@ -0,0 +1,184 @@
+package com.example.moviefinder.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration of the executors used by the ingest pipeline.
+ * <p>
+ * The executors are Spring-managed beans, so they are shut down together with the application context.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    /**
+     * Registers the executor that runs the upstream calls and image downloads of the ingest pipeline.
+     * <p>
+     * The tasks mostly wait for I/O, so by default a platform-thread pool with a fixed number of threads
+     * is used: every submitted task starts a new thread until the pool is full, instead of queueing behind
+     * a small core pool. Idle threads are released after a minute. When all threads are busy, tasks wait
+     * in a bounded queue; when it is full, the submitting thread runs the task itself, which slows down
+     * callers instead of rejecting work.
+     * <p>
+     * With {@code moviefinder.executor.virtual-threads=true} every task gets its own virtual thread,
+     * so concurrent ingests scale with I/O wait rather than with the pool size. The application is
+     * built for Java 17, where virtual threads do not exist; the setting only takes effect when it
+     * runs on Java 21 or newer and is otherwise ignored with a warning.
+     *
+     * @param virtualThreads   whether to use virtual threads instead of a platform-thread pool
+     * @param poolSize         maximum number of platform threads
+     * @param queueCapacity    number of tasks queued while all threads are busy
+     * @param awaitTermination how long to wait for running tasks when the context shuts down
+     * @return the ingest {@link AsyncTaskExecutor}
+     */
+    @Bean(name = "ingestExecutor")
+    public AsyncTaskExecutor ingestExecutor(
+            @Value("${moviefinder.executor.virtual-threads:false}") boolean virtualThreads,
+            @Value("${moviefinder.executor.pool-size:64}") int poolSize,
+            @Value("${moviefinder.executor.queue-capacity:500}") int queueCapacity,
+            @Value("${moviefinder.executor.await-termination:PT30S}") Duration awaitTermination) {
+
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ingest-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(awaitTermination.toMillis());
+            return executor;
+        }
+        if (virtualThreads) {
+            log.warn("Virtual threads require Java 21 or newer (running on {}), using a pool of {} platform threads",
+                    Runtime.version().feature(), poolSize);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ingest-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        return executor;
+    }
+
+    /**
+     * Registers the executor that drives the titles of batch ingest requests.
+     * <p>
+     * Each task runs one complete ingest, so the pool size is the maximum number of titles
+     * fetched at the same time, across all batch requests. It is kept separate from the
+     * {@code ingestExecutor}, which runs the individual steps of each ingest.
+     *
+     * @param concurrency      maximum number of titles ingested concurrently
+     * @param awaitTermination how long to wait for running tasks when the context shuts down
+     * @return the batch ingest {@link AsyncTaskExecutor}
+     */
+    @Bean(name = "batchIngestExecutor")
+    public AsyncTaskExecutor batchIngestExecutor(
+            @Value("${moviefinder.batch.concurrency:8}") int concurrency,
+            @Value("${moviefinder.executor.await-termination:PT30S}") Duration awaitTermination) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("batch-ingest-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        return executor;
+    }
+
+    /**
+     * Registers the executor that runs asynchronous ingest jobs submitted with {@code POST /movies?async=true}.
+     * <p>
+     * Each task runs one complete ingest. The queue is bounded and tasks that do not fit are rejected,
+     * so the API can answer {@code 429 Too Many Requests} instead of letting jobs pile up without limit.
+     *
+     * @param concurrency      maximum number of jobs running at the same time
+     * @param queueCapacity    number of jobs waiting to run
+     * @param awaitTermination how long to wait for running tasks when the context shuts down
+     * @return the async ingest {@link AsyncTaskExecutor}
+     */
+    @Bean(name = "asyncIngestExecutor")
+    public AsyncTaskExecutor asyncIngestExecutor(
+            @Value("${moviefinder.async-ingest.concurrency:8}") int concurrency,
+            @Value("${moviefinder.async-ingest.queue-capacity:200}") int queueCapacity,
+            @Value("${moviefinder.executor.await-termination:PT30S}") Duration awaitTermination) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("async-ingest-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        return executor;
+    }
+
+    /**
+     * Registers the executor that fetches the TMDb data of movies stored by two-phase ingests.
+     * <p>
+     * The queue is bounded and tasks that do not fit are rejected; the movie then keeps its
+     * {@code PENDING} status and is enriched again by a later refresh.
+     *
+     * @param concurrency      maximum number of movies enriched at the same time
+     * @param queueCapacity    number of movies waiting to be enriched
+     * @param awaitTermination how long to wait for running tasks when the context shuts down
+     * @return the enrichment {@link AsyncTaskExecutor}
+     */
+    @Bean(name = "enrichmentExecutor")
+    public AsyncTaskExecutor enrichmentExecutor(
+            @Value("${moviefinder.enrichment.concurrency:4}") int concurrency,
+            @Value("${moviefinder.enrichment.queue-capacity:1000}") int queueCapacity,
+            @Value("${moviefinder.executor.await-termination:PT30S}") Duration awaitTermination) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("enrichment-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        return executor;
+    }
+
+    /**
+     * Registers the executor that generates image thumbnails in the background.
+     * <p>
+     * The pool and its queue are small and bounded, and tasks that do not fit are rejected:
+     * thumbnails are only an optimization and missing ones are generated on a later request,
+     * so image processing never competes with ingests for more than a few threads.
+     *
+     * @param poolSize         number of threads generating thumbnails
+     * @param queueCapacity    number of thumbnails waiting to be generated
+     * @param awaitTermination how long to wait for running tasks when the context shuts down
+     * @return the thumbnail {@link AsyncTaskExecutor}
+     */
+    @Bean(name = "thumbnailExecutor")
+    public AsyncTaskExecutor thumbnailExecutor(
+            @Value("${moviefinder.thumbnails.pool-size:2}") int poolSize,
+            @Value("${moviefinder.thumbnails.queue-capacity:100}") int queueCapacity,
+            @Value("${moviefinder.executor.await-termination:PT30S}") Duration awaitTermination) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        return executor;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.example.moviefinder.config;
+
+import com.example.moviefinder.util.GzipDecodingInterceptor;
+import com.example.moviefinder.util.HostConnectionPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Configuration of the HTTP client used for the OMDb and TMDb API calls.
+ * <p>
+ * The {@link RestTemplate} runs on the JDK {@link HttpClient}, which keeps connections alive and
+ * reuses them per host, and negotiates HTTP/2 over TLS where the server supports it.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Registers the per-host connection limits shared by all upstream requests.
+     *
+     * @param maxPerHost     maximum number of concurrent requests per upstream host
+     * @param acquireTimeout maximum time a request waits for a free connection
+     * @return the {@link HostConnectionPool}
+     */
+    @Bean
+    public HostConnectionPool hostConnectionPool(
+            @Value("${moviefinder.http.max-connections-per-host:20}") int maxPerHost,
+            @Value("${moviefinder.http.acquire-timeout:PT2S}") Duration acquireTimeout) {
+        return new HostConnectionPool(maxPerHost, acquireTimeout);
+    }
+
+    /**
+     * Registers a {@link RestTemplate} bean in the Spring application context.
+     * Used for performing HTTP requests to external services like OMDb and TMDb.
+     * <p>
+     * Requests fail instead of blocking forever when connecting or reading takes too long,
+     * and responses are requested and decoded gzip-compressed.
+     *
+     * @param connectionPool the per-host connection limits
+     * @param connectTimeout maximum time to establish a connection
+     * @param readTimeout    maximum time to wait for a response
+     * @param http2          whether to negotiate HTTP/2 with servers that support it
+     * @return a singleton {@code RestTemplate} instance
+     */
+    @Bean
+    public RestTemplate restTemplate(HostConnectionPool connectionPool,
+                                     @Value("${moviefinder.http.connect-timeout:PT5S}") Duration connectTimeout,
+                                     @Value("${moviefinder.http.read-timeout:PT10S}") Duration readTimeout,
+                                     @Value("${moviefinder.http.http2:true}") boolean http2) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(connectionPool);
+        restTemplate.getInterceptors().add(new GzipDecodingInterceptor());
+        return restTemplate;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.moviefinder.config;
+
+import com.example.moviefinder.util.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the client-side rate limiters, one per API key.
+ * <p>
+ * The TMDb limiter is shared by the TMDb API calls and the image downloads, since both count
+ * towards the same TMDb quota.
+ */
+@Configuration
+public class RateLimiterConfig {
+
+    /**
+     * Registers the rate limiter for the OMDb API key.
+     *
+     * @param requestsPerSecond maximum sustained request rate
+     * @param burst             maximum number of requests made at once after a quiet period
+     * @param maxWait           maximum time a request waits for its turn
+     * @param defaultBackoff    pause after a 429 response without {@code Retry-After}
+     * @param maxRetries        number of retries after a 429 response
+     * @param backgroundReserve fraction of the burst that background refreshes leave for interactive requests
+     * @return the OMDb {@link RateLimiter}
+     */
+    @Bean(name = "omdbRateLimiter")
+    public RateLimiter omdbRateLimiter(
+            @Value("${omdb.rate-limit.requests-per-second:10}") double requestsPerSecond,
+            @Value("${omdb.rate-limit.burst:10}") int burst,
+            @Value("${omdb.rate-limit.max-wait:PT10S}") Duration maxWait,
+            @Value("${omdb.rate-limit.default-backoff:PT2S}") Duration defaultBackoff,
+            @Value("${omdb.rate-limit.max-retries:2}") int maxRetries,
+            @Value("${omdb.rate-limit.background-reserve:0.5}") double backgroundReserve) {
+        return new RateLimiter("omdb", requestsPerSecond, burst, maxWait, defaultBackoff, maxRetries, backgroundReserve);
+    }
+
+    /**
+     * Registers the rate limiter for the TMDb API key.
+     *
+     * @param requestsPerSecond maximum sustained request rate
+     * @param burst             maximum number of requests made at once after a quiet period
+     * @param maxWait           maximum time a request waits for its turn
+     * @param defaultBackoff    pause after a 429 response without {@code Retry-After}
+     * @param maxRetries        number of retries after a 429 response
+     * @param backgroundReserve fraction of the burst that background refreshes leave for interactive requests
+     * @return the TMDb {@link RateLimiter}
+     */
+    @Bean(name = "tmdbRateLimiter")
+    public RateLimiter tmdbRateLimiter(
+            @Value("${tmdb.rate-limit.requests-per-second:40}") double requestsPerSecond,
+            @Value("${tmdb.rate-limit.burst:40}") int burst,
+            @Value("${tmdb.rate-limit.max-wait:PT10S}") Duration maxWait,
+            @Value("${tmdb.rate-limit.default-backoff:PT2S}") Duration defaultBackoff,
+            @Value("${tmdb.rate-limit.max-retries:2}") int maxRetries,
+            @Value("${tmdb.rate-limit.background-reserve:0.5}") double backgroundReserve) {
+        return new RateLimiter("tmdb", requestsPerSecond, burst, maxWait, defaultBackoff, maxRetries, backgroundReserve);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.moviefinder.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the scheduled background jobs, such as the metadata refresh.
+ * <p>
+ * Scheduled jobs run on Spring Boot's own scheduler thread, so they never take threads
+ * from the ingest executors configured in {@link ExecutorConfig}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
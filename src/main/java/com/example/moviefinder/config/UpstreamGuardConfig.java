@@ -0,0 +1,53 @@
+package com.example.moviefinder.config;
+
+import com.example.moviefinder.util.UpstreamGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the circuit breakers and bulkheads protecting the external APIs.
+ * <p>
+ * Every API gets its own {@link UpstreamGuard}, so an outage of one does not affect calls to the other.
+ */
+@Configuration
+public class UpstreamGuardConfig {
+
+    /**
+     * Registers the guard for the OMDb API.
+     *
+     * @param failureThreshold   number of consecutive failures that opens the breaker
+     * @param openDuration       how long the breaker stays open before a trial call
+     * @param maxConcurrentCalls maximum number of concurrent OMDb calls
+     * @param maxWait            maximum time a call waits for a free slot
+     * @return the OMDb {@link UpstreamGuard}
+     */
+    @Bean(name = "omdbGuard")
+    public UpstreamGuard omdbGuard(
+            @Value("${omdb.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${omdb.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+            @Value("${omdb.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+            @Value("${omdb.bulkhead.max-wait:PT1S}") Duration maxWait) {
+        return new UpstreamGuard("omdb", failureThreshold, openDuration, maxConcurrentCalls, maxWait);
+    }
+
+    /**
+     * Registers the guard for the TMDb API.
+     *
+     * @param failureThreshold   number of consecutive failures that opens the breaker
+     * @param openDuration       how long the breaker stays open before a trial call
+     * @param maxConcurrentCalls maximum number of concurrent TMDb calls
+     * @param maxWait            maximum time a call waits for a free slot
+     * @return the TMDb {@link UpstreamGuard}
+     */
+    @Bean(name = "tmdbGuard")
+    public UpstreamGuard tmdbGuard(
+            @Value("${tmdb.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${tmdb.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+            @Value("${tmdb.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+            @Value("${tmdb.bulkhead.max-wait:PT1S}") Duration maxWait) {
+        return new UpstreamGuard("tmdb", failureThreshold, openDuration, maxConcurrentCalls, maxWait);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.moviefinder.controller;
+
+import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.service.EnrichmentService;
+import com.example.moviefinder.service.MovieService;
+import com.example.moviefinder.util.ImageStore;
+import com.example.moviefinder.util.ThumbnailGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REST controller that serves the images downloaded for a movie.
+ * <p>
+ * Files are sent without copying them onto the heap: through the container's sendfile support
+ * when available (Tomcat), otherwise with {@link FileChannel#transferTo}. Single byte ranges,
+ * strong ETags (the image's content hash) and long-lived cache headers are supported, since
+ * stored images never change.
+ * <p>
+ * Smaller variants can be requested with {@code ?size=thumb} or {@code ?size=medium}. While a variant
+ * is still being generated the original is served instead, with a short cache lifetime so clients
+ * pick up the variant once it exists. An image that was evicted from the store is not found; its
+ * movie is queued to download it again.
+ */
+@RestController
+@RequestMapping("/movies")
+public class ImageController {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ThumbnailGenerator thumbnailGenerator;
+
+    @Autowired
+    private EnrichmentService enrichmentService;
+
+    /**
+     * How long clients and CDNs may cache an image without revalidating it.
+     */
+    @Value("${moviefinder.images.cache-max-age:P365D}")
+    private Duration cacheMaxAge = Duration.ofDays(365);
+
+    /**
+     * How long clients may cache the original image when it is served in place of a missing variant.
+     */
+    @Value("${moviefinder.thumbnails.fallback-max-age:PT1M}")
+    private Duration fallbackMaxAge = Duration.ofMinutes(1);
+
+    /**
+     * Streams the n-th image (1 to 3) of a movie, in the requested size.
+     *
+     * @param id       the ID of the movie
+     * @param n        the image number (1, 2 or 3)
+     * @param size     the variant to serve: {@code original} or one of the configured thumbnail sizes
+     * @param request  the current request, used for conditional and range headers
+     * @param response the response the image is written to
+     * @throws IOException              if writing the image fails
+     * @throws IllegalArgumentException if the size is unknown
+     */
+    @GetMapping("/{id}/images/{n}")
+    public void getImage(@PathVariable Long id, @PathVariable int n,
+                         @RequestParam(defaultValue = ThumbnailGenerator.ORIGINAL) String size,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!thumbnailGenerator.sizes().contains(size)) {
+            throw new IllegalArgumentException("Unknown image size '" + size + "', expected one of " + thumbnailGenerator.sizes());
+        }
+
+        Movie movie = movieService.getMovieById(id).orElse(null);
+        String originalKey = movie != null ? imageKey(movie, n) : null;
+        if (originalKey == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // Each key is resolved once; the original is only looked up if no variant is wanted or it is missing
+        String key = originalKey;
+        Optional<Path> file = Optional.empty();
+        boolean fallback = false;
+        if (!size.equals(ThumbnailGenerator.ORIGINAL)) {
+            String variantKey = imageStore.variantKey(key, size);
+            file = imageStore.resolve(variantKey);
+            if (file.isPresent()) {
+                key = variantKey;
+            }
+        }
+        if (file.isEmpty()) {
+            file = imageStore.resolve(key);
+            if (file.isPresent() && !size.equals(ThumbnailGenerator.ORIGINAL)) {
+                thumbnailGenerator.scheduleVariant(key, size);
+                fallback = true;
+            }
+        }
+        if (file.isEmpty()) {
+            // Evicted from the store; download it again so later requests find it
+            enrichmentService.scheduleImageRestore(movie);
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path path = file.get();
+        String etag = "\"" + key.substring(0, key.indexOf('.')) + "\"";
+        long length;
+        try {
+            length = Files.size(path);
+        } catch (NoSuchFileException e) {
+            // Evicted from the store after it was resolved
+            enrichmentService.scheduleImageRestore(movie);
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, fallback
+                ? "public, max-age=" + fallbackMaxAge.toSeconds()
+                : "public, max-age=" + cacheMaxAge.toSeconds() + ", immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(path.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+                // Multiple ranges are ignored and the full image is sent
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        send(path, start, count, request, response);
+    }
+
+    /**
+     * Returns the image store key of the n-th image of a movie.
+     *
+     * @param movie the movie
+     * @param n     the image number (1, 2 or 3)
+     * @return the store key, or {@code null} if there is no such image
+     */
+    private String imageKey(Movie movie, int n) {
+        return switch (n) {
+            case 1 -> movie.getImagePath1();
+            case 2 -> movie.getImagePath2();
+            case 3 -> movie.getImagePath3();
+            default -> null;
+        };
+    }
+
+    /**
+     * Checks an {@code If-None-Match} header against the image's ETag.
+     *
+     * @param ifNoneMatch the header value, may be {@code null}
+     * @param etag        the image's ETag
+     * @return {@code true} if the client already has this image
+     */
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag));
+    }
+
+    /**
+     * Writes a region of the file to the response without copying it onto the heap.
+     * Uses the container's sendfile support when available, otherwise {@link FileChannel#transferTo}.
+     *
+     * @param path     the image file
+     * @param start    offset of the first byte to send
+     * @param count    number of bytes to send
+     * @param request  the current request
+     * @param response the response to write to
+     * @throws IOException if writing fails
+     */
+    private void send(Path path, long start, long count,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
@@ -1,12 +1,29 @@
 package com.example.moviefinder.controller;
 
+import com.example.moviefinder.dto.BatchIngestResponse;
+import com.example.moviefinder.dto.BulkUpdateResponse;
+import com.example.moviefinder.dto.IngestJob;
+import com.example.moviefinder.dto.MovieChange;
+import com.example.moviefinder.dto.MovieSlice;
+import com.example.moviefinder.dto.MovieUpdate;
+import com.example.moviefinder.dto.RebuildResponse;
 import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.service.IngestJobService;
+import com.example.moviefinder.service.MetadataRefreshService;
 import com.example.moviefinder.service.MovieService;
+import com.example.moviefinder.util.MovieCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
 /**
  * REST controller that handles HTTP requests for managing movies.
  * It provides endpoints to add, retrieve, update, and delete movie records.
@@ -18,68 +35,213 @@ public class MovieController {
     @Autowired
     private MovieService movieService;
 
+    @Autowired
+    private IngestJobService ingestJobService;
+
+    @Autowired
+    private MetadataRefreshService metadataRefreshService;
+
     /**
      * Adds a new movie by title using external APIs (OMDb and TMDb).
+     * If the movie is already stored, the stored movie is returned unless a refresh is requested.
+     * With {@code deferEnrichment=true} the movie is returned as soon as its OMDb data is stored,
+     * with enrichment status {@code PENDING} until its TMDb data has been fetched in the background.
      *
-     * @param title the title of the movie to add
+     * @param title           the title of the movie to add
+     * @param refresh         whether to fetch the movie again even if it is already stored
+     * @param deferEnrichment whether to fetch the TMDb data after returning the movie
      * @return the created {@link Movie} wrapped in a {@link ResponseEntity}
      */
     @PostMapping
-    public ResponseEntity<Movie> addMovie(@RequestParam String title) {
-        Movie movie = movieService.addMovieByTitle(title);
+    public ResponseEntity<Movie> addMovie(@RequestParam String title,
+                                          @RequestParam(defaultValue = "false") boolean refresh,
+                                          @RequestParam(defaultValue = "false") boolean deferEnrichment) {
+        Movie movie = movieService.addMovieByTitle(title, refresh, deferEnrichment);
         return ResponseEntity.ok(movie);
     }
 
+    /**
+     * Queues a movie to be added by title in the background, selected by {@code async=true}.
+     * The title is validated and the request returns immediately; poll the returned job for the result.
+     *
+     * @param title   the title of the movie to add
+     * @param refresh whether to fetch the movie again even if it is already stored
+     * @return 202 Accepted with the {@link IngestJob} and its location, or 429 Too Many Requests if the queue is full
+     */
+    @PostMapping(params = "async=true")
+    public ResponseEntity<IngestJob> addMovieAsync(@RequestParam String title,
+                                                   @RequestParam(defaultValue = "false") boolean refresh) {
+        IngestJob job = ingestJobService.submit(title, refresh);
+        return ResponseEntity.accepted()
+            .location(URI.create("/movies/jobs/" + job.id()))
+            .body(job);
+    }
+
+    /**
+     * Retrieves the status of an asynchronous ingest job.
+     *
+     * @param id the ID of the job
+     * @return the {@link IngestJob} with its status and, once it succeeded, the movie ID, or 404 Not Found
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<IngestJob> getIngestJob(@PathVariable UUID id) {
+        return ingestJobService.getJob(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Adds many movies at once from a JSON array of titles.
+     * The response reports the outcome of every title; failed titles do not fail the batch.
+     *
+     * @param titles the titles to add
+     * @return a {@link BatchIngestResponse} with per-title results
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchIngestResponse> addMovies(@RequestBody List<String> titles) {
+        return ResponseEntity.ok(movieService.addMoviesByTitles(titles));
+    }
+
+    /**
+     * Adds many movies at once from newline-delimited text, one title per line.
+     * The response reports the outcome of every title; failed titles do not fail the batch.
+     *
+     * @param body the titles to add, one per line
+     * @return a {@link BatchIngestResponse} with per-title results
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<BatchIngestResponse> addMoviesFromText(@RequestBody String body) {
+        return ResponseEntity.ok(movieService.addMoviesByTitles(body.lines().toList()));
+    }
+
+    /**
+     * Rebuilds the metadata of all stored movies from the cached OMDb and TMDb responses,
+     * without calling the external APIs. Only changed movies are written back.
+     *
+     * @return a {@link RebuildResponse} with the number of updated movies and those that could not be rebuilt
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<RebuildResponse> rebuildMovies() {
+        return ResponseEntity.ok(metadataRefreshService.rebuildFromStoredResponses());
+    }
+
     /**
      * Retrieves a paginated list of all movies.
+     * With {@code fields=summary} only the fields needed for a list are returned; with a comma-separated
+     * list of field names only those fields (and the ID) are returned.
      *
-     * @param page the page number (0-based)
-     * @param size the number of items per page
-     * @return a {@link Page} of {@link Movie} objects
+     * @param page   the page number (0-based)
+     * @param size   the number of items per page
+     * @param fields {@code summary}, the names of the fields to return, or absent for complete movies
+     * @return a {@link Page} of {@link Movie} objects, summaries or field maps
      */
     @GetMapping
-    public Page<Movie> getMovies(@RequestParam(defaultValue = "0") int page,
-                                 @RequestParam(defaultValue = "10") int size) {
-        return movieService.getAllMovies(PageRequest.of(page, size));
+    public Page<?> getMovies(@RequestParam(defaultValue = "0") int page,
+                             @RequestParam(defaultValue = "10") int size,
+                             @RequestParam(required = false) List<String> fields) {
+        return movieService.getAllMovies(PageRequest.of(page, size), fields);
+    }
+
+    /**
+     * Retrieves many movies by their IDs in one request, selected by the presence of the {@code ids} parameter.
+     *
+     * @param ids the comma-separated IDs of the movies
+     * @return the stored movies in request order; unknown IDs are left out
+     */
+    @GetMapping(params = {"ids", "!after"})
+    public List<Movie> getMoviesByIds(@RequestParam List<Long> ids) {
+        return movieService.getMoviesByIds(ids);
+    }
+
+    /**
+     * Rejects a request that selects both the ID lookup and keyset pagination, since neither mode
+     * can honor the other's parameter.
+     *
+     * @throws IllegalArgumentException always, answered with 400 Bad Request
+     */
+    @GetMapping(params = {"ids", "after"})
+    public void getMoviesByIdsAfter() {
+        throw new IllegalArgumentException("The ids and after parameters cannot be combined");
+    }
+
+    /**
+     * Applies many watched and rating changes in one request and one transaction.
+     * Every change is an object with an {@code id}, a {@code watched} and/or {@code rating} value,
+     * and optionally the {@code version} the client last read.
+     *
+     * @param changes the changes to apply
+     * @return a {@link BulkUpdateResponse} with the number of applied changes and the IDs that were not found
+     *         or had another version
+     */
+    @PatchMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkUpdateResponse> updateMovies(@RequestBody List<MovieChange> changes) {
+        return ResponseEntity.ok(movieService.updateMovies(changes));
+    }
+
+    /**
+     * Retrieves a slice of movies using keyset pagination, selected by the presence of the {@code after} parameter.
+     * Start with an empty {@code after} and pass the returned {@code next} token to get the following slice.
+     * Unlike the page mode, fetching a slice takes the same time however deep the client pages.
+     *
+     * @param after  the {@code next} token of the previous slice, or empty for the first slice
+     * @param size   the maximum number of movies per slice
+     * @param fields {@code summary}, the names of the fields to return, or absent for complete movies
+     * @return a {@link MovieSlice} with the movies and the token for the next slice
+     */
+    @GetMapping(params = {"after", "!ids"})
+    public MovieSlice<?> getMoviesAfter(@RequestParam String after,
+                                        @RequestParam(defaultValue = "10") int size,
+                                        @RequestParam(required = false) List<String> fields) {
+        return movieService.getMoviesAfter(after, size, fields);
     }
 
     /**
      * Retrieves a specific movie by its ID.
+     * The movie's JSON is encoded once per change and served from the movie cache, gzip-compressed
+     * if it is large enough and the client accepts it.
      *
-     * @param id the ID of the movie
-     * @return the {@link Movie} if found, or 404 Not Found
+     * @param id             the ID of the movie
+     * @param acceptEncoding the client's {@code Accept-Encoding} header, optional
+     * @return the {@link Movie} as JSON if found, or 404 Not Found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Movie> getMovieById(@PathVariable Long id) {
-        return movieService.getMovieById(id)
-            .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getMovieById(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return movieService.getMovieJson(id)
+            .map(movie -> encodedResponse(movie, acceptEncoding))
             .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * Updates the watched status of a specific movie.
+     * Pass the version the client last read to reject the update if the movie was changed since.
      *
      * @param id      the ID of the movie
      * @param watched whether the movie has been watched
-     * @return the updated {@link Movie}, or 404 Not Found
+     * @param version the expected version of the movie, optional
+     * @return the changed field as a {@link MovieUpdate}, 404 Not Found, or 409 Conflict on a version mismatch
      */
     @PostMapping("/{id}/watched")
-    public ResponseEntity<Movie> updateWatched(@PathVariable Long id, @RequestParam boolean watched) {
-        return movieService.updateWatched(id, watched)
+    public ResponseEntity<MovieUpdate> updateWatched(@PathVariable Long id, @RequestParam boolean watched,
+                                                     @RequestParam(required = false) Long version) {
+        return movieService.updateWatched(id, watched, version)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * Updates the user rating of a specific movie.
+     * Pass the version the client last read to reject the update if the movie was changed since.
      *
-     * @param id     the ID of the movie
-     * @param rating the user rating (e.g., 1 to 5)
-     * @return the updated {@link Movie}, or 404 Not Found
+     * @param id      the ID of the movie
+     * @param rating  the user rating (e.g., 1 to 5)
+     * @param version the expected version of the movie, optional
+     * @return the changed field as a {@link MovieUpdate}, 404 Not Found, or 409 Conflict on a version mismatch
      */
     @PostMapping("/{id}/rating")
-    public ResponseEntity<Movie> updateRating(@PathVariable Long id, @RequestParam int rating) {
-        return movieService.updateRating(id, rating)
+    public ResponseEntity<MovieUpdate> updateRating(@PathVariable Long id, @RequestParam int rating,
+                                                    @RequestParam(required = false) Long version) {
+        return movieService.updateRating(id, rating, version)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
@@ -93,4 +255,37 @@ public class MovieController {
     public void deleteMovie(@PathVariable Long id) {
         movieService.deleteMovie(id);
     }
+
+    /**
+     * Builds the response for an encoded movie, using the compressed body if the client accepts gzip.
+     *
+     * @param movie          the encoded movie
+     * @param acceptEncoding the client's {@code Accept-Encoding} header, may be {@code null}
+     * @return 200 OK with the JSON body
+     */
+    private ResponseEntity<byte[]> encodedResponse(MovieCache.EncodedMovie movie, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (movie.gzipped() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(movie.gzipped());
+        }
+        return response.body(movie.json());
+    }
+
+    /**
+     * Checks whether an {@code Accept-Encoding} header allows gzip, ignoring codings with {@code q=0}.
+     *
+     * @param acceptEncoding the header value, may be {@code null}
+     * @return {@code true} if a gzip-compressed body may be sent
+     */
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+            .map(coding -> coding.trim().toLowerCase().split("\\s*;\\s*"))
+            .anyMatch(coding -> (coding[0].equals("gzip") || coding[0].equals("*"))
+                && Arrays.stream(coding).skip(1).noneMatch(param -> param.matches("q=0(\\.0*)?")));
+    }
 }
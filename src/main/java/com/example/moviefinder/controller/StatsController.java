@@ -0,0 +1,154 @@
+package com.example.moviefinder.controller;
+
+import com.example.moviefinder.service.EnrichmentService;
+import com.example.moviefinder.service.IngestJobService;
+import com.example.moviefinder.service.MetadataRefreshService;
+import com.example.moviefinder.util.HostConnectionPool;
+import com.example.moviefinder.util.ImageStore;
+import com.example.moviefinder.util.MovieCache;
+import com.example.moviefinder.util.OmdbClient;
+import com.example.moviefinder.util.RawResponseStore;
+import com.example.moviefinder.util.TmdbClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST controller exposing runtime statistics of the application's internal components,
+ * such as the upstream response caches and the image store.
+ */
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    @Autowired
+    private OmdbClient omdbClient;
+
+    @Autowired
+    private TmdbClient tmdbClient;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private HostConnectionPool hostConnectionPool;
+
+    @Autowired
+    private RawResponseStore rawResponseStore;
+
+    @Autowired
+    private MovieCache movieCache;
+
+    @Autowired
+    private IngestJobService ingestJobService;
+
+    @Autowired
+    private EnrichmentService enrichmentService;
+
+    @Autowired
+    private MetadataRefreshService metadataRefreshService;
+
+    /**
+     * Returns the hit, miss and eviction counters of the OMDb and TMDb response caches and the movie cache.
+     *
+     * @return a map of cache name to its statistics
+     */
+    @GetMapping("/caches")
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("omdb", omdbClient.cacheStats());
+        stats.put("tmdb", tmdbClient.cacheStats());
+        stats.put("movies", movieCache.stats());
+        return stats;
+    }
+
+    /**
+     * Returns the mode, counters and stored sizes of the persistent raw-response cache.
+     *
+     * @return the persistent cache statistics
+     */
+    @GetMapping("/raw-responses")
+    public Map<String, Object> getRawResponseStats() {
+        return rawResponseStore.stats();
+    }
+
+    /**
+     * Returns the circuit breaker state and bulkhead usage of the OMDb and TMDb APIs.
+     *
+     * @return a map of API name to its guard statistics
+     */
+    @GetMapping("/upstreams")
+    public Map<String, Object> getUpstreamStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("omdb", omdbClient.guardStats());
+        stats.put("tmdb", tmdbClient.guardStats());
+        return stats;
+    }
+
+    /**
+     * Returns the current rate and throttling counters of the OMDb and TMDb rate limiters.
+     *
+     * @return a map of API name to its rate limiter statistics
+     */
+    @GetMapping("/rate-limits")
+    public Map<String, Object> getRateLimiterStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("omdb", omdbClient.rateLimiterStats());
+        stats.put("tmdb", tmdbClient.rateLimiterStats());
+        return stats;
+    }
+
+    /**
+     * Returns the size, quota and eviction counters of the image store.
+     *
+     * @return the image store statistics
+     */
+    @GetMapping("/images")
+    public Map<String, Object> getImageStoreStats() {
+        return imageStore.stats();
+    }
+
+    /**
+     * Returns the connection counters of the upstream HTTP client, per host.
+     *
+     * @return a map of host name to its connection statistics
+     */
+    @GetMapping("/http")
+    public Map<String, Object> getHttpClientStats() {
+        return hostConnectionPool.stats();
+    }
+
+    /**
+     * Returns the number of asynchronous ingest jobs per status and how many were rejected.
+     *
+     * @return a map with job counts and counters
+     */
+    @GetMapping("/ingest-jobs")
+    public Map<String, Object> getIngestJobStats() {
+        return ingestJobService.stats();
+    }
+
+    /**
+     * Returns how many background TMDb enrichments of two-phase ingests completed, failed or were rejected.
+     *
+     * @return a map with enrichment counters
+     */
+    @GetMapping("/enrichment")
+    public Map<String, Object> getEnrichmentStats() {
+        return enrichmentService.stats();
+    }
+
+    /**
+     * Returns how many movies the scheduled metadata refresh checked, changed or could not refresh.
+     *
+     * @return a map with refresh counters
+     */
+    @GetMapping("/refresh")
+    public Map<String, Object> getRefreshStats() {
+        return metadataRefreshService.stats();
+    }
+}
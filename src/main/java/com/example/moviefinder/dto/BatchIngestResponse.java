@@ -0,0 +1,26 @@
+package com.example.moviefinder.dto;
+
+import java.util.List;
+
+/**
+ * Response of a batch ingest request, reporting the outcome of every requested title.
+ *
+ * @param succeeded number of titles that were added or already stored
+ * @param failed    number of titles that could not be added
+ * @param results   per-title results, in request order
+ */
+public record BatchIngestResponse(int succeeded, int failed, List<BatchIngestResult> results) {
+
+    /**
+     * Builds a response and computes the success and failure counts from the results.
+     *
+     * @param results per-title results, in request order
+     * @return the batch response
+     */
+    public static BatchIngestResponse of(List<BatchIngestResult> results) {
+        int succeeded = (int) results.stream()
+                .filter(result -> result.status() != BatchIngestResult.Status.FAILED)
+                .count();
+        return new BatchIngestResponse(succeeded, results.size() - succeeded, results);
+    }
+}
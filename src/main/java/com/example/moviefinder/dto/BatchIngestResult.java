@@ -0,0 +1,54 @@
+package com.example.moviefinder.dto;
+
+/**
+ * Outcome of ingesting a single title as part of a batch request.
+ *
+ * @param title   the requested title
+ * @param status  whether the movie was created, already stored, or the title failed
+ * @param movieId the ID of the created or stored movie, or {@code null} on failure
+ * @param error   the failure message, or {@code null} on success
+ */
+public record BatchIngestResult(String title, Status status, Long movieId, String error) {
+
+    /**
+     * Per-title status of a batch ingest.
+     */
+    public enum Status {
+        CREATED,
+        EXISTING,
+        FAILED
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param title   the requested title
+     * @param movieId the ID of the created movie
+     * @return a {@link Status#CREATED} result
+     */
+    public static BatchIngestResult created(String title, Long movieId) {
+        return new BatchIngestResult(title, Status.CREATED, movieId, null);
+    }
+
+    /**
+     * Creates a result for a title whose movie was already stored.
+     *
+     * @param title   the requested title
+     * @param movieId the ID of the stored movie
+     * @return an {@link Status#EXISTING} result
+     */
+    public static BatchIngestResult existing(String title, Long movieId) {
+        return new BatchIngestResult(title, Status.EXISTING, movieId, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param title the requested title
+     * @param error the failure message
+     * @return a {@link Status#FAILED} result
+     */
+    public static BatchIngestResult failed(String title, String error) {
+        return new BatchIngestResult(title, Status.FAILED, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.moviefinder.dto;
+
+import java.util.List;
+
+/**
+ * Response of a bulk update, reporting which changes could not be applied.
+ *
+ * @param updated   number of changes that were applied
+ * @param notFound  IDs of changes whose movie does not exist
+ * @param conflicts IDs of changes whose movie has another version than the one given
+ */
+public record BulkUpdateResponse(int updated, List<Long> notFound, List<Long> conflicts) {
+}
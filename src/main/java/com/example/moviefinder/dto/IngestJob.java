@@ -0,0 +1,29 @@
+package com.example.moviefinder.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Status of an asynchronous ingest job.
+ *
+ * @param id          the ID of the job
+ * @param title       the requested title
+ * @param status      whether the job is waiting, running, or finished
+ * @param movieId     the ID of the added movie once the job succeeded, otherwise {@code null}
+ * @param error       the failure message once the job failed, otherwise {@code null}
+ * @param submittedAt when the job was accepted
+ * @param finishedAt  when the job finished, or {@code null} while it is waiting or running
+ */
+public record IngestJob(UUID id, String title, Status status, Long movieId, String error,
+                        Instant submittedAt, Instant finishedAt) {
+
+    /**
+     * Lifecycle states of an ingest job.
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.moviefinder.dto;
+
+/**
+ * One change of a bulk update: a new watched status and/or rating for a movie.
+ *
+ * @param id      the ID of the movie
+ * @param watched the new watched status, or {@code null} to leave it unchanged
+ * @param rating  the new rating, or {@code null} to leave it unchanged
+ * @param version the version the client last read, or {@code null} to update regardless
+ */
+public record MovieChange(Long id, Boolean watched, Integer rating, Long version) {
+}
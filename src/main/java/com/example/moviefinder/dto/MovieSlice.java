@@ -0,0 +1,15 @@
+package com.example.moviefinder.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated movie listing. Unlike a page, it carries no total count.
+ *
+ * @param content the movies of this slice, ordered by ID
+ * @param size    the requested slice size
+ * @param hasNext whether more movies follow this slice
+ * @param next    the {@code after} token for the next slice, or {@code null} if this is the last one
+ * @param <T>     the representation of a movie (entity, summary or field map)
+ */
+public record MovieSlice<T>(List<T> content, int size, boolean hasNext, String next) {
+}
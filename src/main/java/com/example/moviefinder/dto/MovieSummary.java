@@ -0,0 +1,14 @@
+package com.example.moviefinder.dto;
+
+/**
+ * Summary of a movie for list screens, loaded from the database without the long text columns.
+ *
+ * @param id         the ID of the movie
+ * @param title      the title of the movie
+ * @param year       the release year
+ * @param imagePath1 the image store key of the first image, used as poster
+ * @param watched    whether the movie has been watched
+ * @param rating     the user rating, or {@code null} if not rated
+ */
+public record MovieSummary(Long id, String title, String year, String imagePath1, boolean watched, Integer rating) {
+}
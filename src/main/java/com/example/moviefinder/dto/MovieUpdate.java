@@ -0,0 +1,39 @@
+package com.example.moviefinder.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Minimal response to a watched or rating update, holding only the changed field.
+ *
+ * @param id      the ID of the updated movie
+ * @param watched the new watched status, or {@code null} if it was not changed
+ * @param rating  the new rating, or {@code null} if it was not changed
+ * @param version the new version of the movie
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MovieUpdate(Long id, Boolean watched, Integer rating, Long version) {
+
+    /**
+     * Builds the response to a watched update.
+     *
+     * @param id      the ID of the movie
+     * @param watched the new watched status
+     * @param version the new version of the movie
+     * @return the update response
+     */
+    public static MovieUpdate watched(Long id, boolean watched, Long version) {
+        return new MovieUpdate(id, watched, null, version);
+    }
+
+    /**
+     * Builds the response to a rating update.
+     *
+     * @param id      the ID of the movie
+     * @param rating  the new rating
+     * @param version the new version of the movie
+     * @return the update response
+     */
+    public static MovieUpdate rating(Long id, int rating, Long version) {
+        return new MovieUpdate(id, null, rating, version);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.moviefinder.dto;
+
+import java.util.List;
+
+/**
+ * Response of a rebuild of the stored movies from the cached upstream responses.
+ *
+ * @param updated    number of movies whose metadata changed and was written back
+ * @param unchanged  number of movies whose metadata stayed the same
+ * @param notRebuilt IDs of movies without usable cached responses
+ * @param conflicts  IDs of movies that were changed or deleted during the rebuild and were left alone
+ */
+public record RebuildResponse(int updated, int unchanged, List<Long> notRebuilt, List<Long> conflicts) {
+}
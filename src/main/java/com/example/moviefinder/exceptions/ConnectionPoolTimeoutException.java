@@ -0,0 +1,24 @@
+package com.example.moviefinder.exceptions;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Exception thrown when a request to an external API cannot get a connection from its host's pool in time.
+ * <p>
+ * The request is never sent, so the exception says nothing about the API's health and is not counted
+ * by its circuit breaker. It is still a {@link ResourceAccessException}, so callers that serve stale
+ * responses while an API cannot be reached do so here as well.
+ */
+public class ConnectionPoolTimeoutException extends ResourceAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new ConnectionPoolTimeoutException.
+     *
+     * @param message the detail message explaining which host's pool was exhausted
+     */
+    public ConnectionPoolTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.moviefinder.exceptions;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -49,6 +52,44 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, "TMDb API error", ex.getMessage());
     }
 
+    /**
+     * Handles calls rejected because an external API is unavailable (open circuit breaker or full bulkhead).
+     *
+     * @param ex the thrown {@link UpstreamUnavailableException}
+     * @return a 503 Service Unavailable error response with a {@code Retry-After} header
+     */
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUpstreamUnavailable(UpstreamUnavailableException ex) {
+        ResponseEntity<Map<String, Object>> response =
+                buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Upstream API unavailable", ex.getMessage());
+        return withRetryAfter(response, ex.getRetryAfter());
+    }
+
+    /**
+     * Handles requests rejected because the application is at capacity.
+     *
+     * @param ex the thrown {@link TooManyRequestsException}
+     * @return a 429 Too Many Requests error response with a {@code Retry-After} header
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(TooManyRequestsException ex) {
+        ResponseEntity<Map<String, Object>> response =
+                buildErrorResponse(HttpStatus.TOO_MANY_REQUESTS, "Too many requests", ex.getMessage());
+        return withRetryAfter(response, ex.getRetryAfter());
+    }
+
+    /**
+     * Handles updates of a movie that was changed concurrently.
+     *
+     * @param ex the thrown {@link OptimisticLockingFailureException}
+     * @return a 409 Conflict error response
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return buildErrorResponse(HttpStatus.CONFLICT, "Movie was modified concurrently",
+                "Reload the movie and apply the change again");
+    }
+
     /**
      * Handles parameter type mismatches in requests.
      *
@@ -60,6 +101,17 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid parameter type", ex.getMessage());
     }
 
+    /**
+     * Handles requests with invalid arguments, such as an empty or oversized batch.
+     *
+     * @param ex the thrown {@link IllegalArgumentException}
+     * @return a 400 Bad Request error response with details
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid request", ex.getMessage());
+    }
+
     /**
      * Handles uncaught exceptions and returns a generic error response.
      *
@@ -71,6 +123,21 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred", ex.getMessage());
     }
 
+    /**
+     * Adds a {@code Retry-After} header, rounded up to whole seconds, to an error response.
+     *
+     * @param response   the error response
+     * @param retryAfter how long the client should wait before trying again
+     * @return the error response with the header
+     */
+    private ResponseEntity<Map<String, Object>> withRetryAfter(ResponseEntity<Map<String, Object>> response,
+                                                               Duration retryAfter) {
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response.getBody());
+    }
+
     /**
      * Helper method to build a standard error response body.
      *
@@ -0,0 +1,34 @@
+package com.example.moviefinder.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request cannot be accepted because the application is at capacity,
+ * such as when the queue of asynchronous ingest jobs is full.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new TooManyRequestsException.
+     *
+     * @param message    the detail message explaining which limit was reached
+     * @param retryAfter how long the caller should wait before trying again
+     */
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns how long the caller should wait before trying again.
+     *
+     * @return the suggested retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.moviefinder.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a call to an external API is rejected without being attempted,
+ * because the API's circuit breaker is open or its concurrency limit is reached.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String upstream;
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new UpstreamUnavailableException.
+     *
+     * @param upstream   the name of the unavailable API (e.g. {@code omdb})
+     * @param message    the detail message explaining why the call was rejected
+     * @param retryAfter how long the caller should wait before trying again
+     */
+    public UpstreamUnavailableException(String upstream, String message, Duration retryAfter) {
+        super(message);
+        this.upstream = upstream;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns the name of the unavailable API.
+     *
+     * @return the upstream name
+     */
+    public String getUpstream() {
+        return upstream;
+    }
+
+    /**
+     * Returns how long the caller should wait before trying again.
+     *
+     * @return the suggested retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
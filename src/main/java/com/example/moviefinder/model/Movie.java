@@ -1,18 +1,47 @@
 package com.example.moviefinder.model;
 
+import com.example.moviefinder.util.TitleNormalizer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
 
 /**
  * Entity representing a movie with metadata from both OMDb and TMDb APIs.
+ * <p>
+ * A movie is uniquely identified by its normalized title and release year.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_movie_normalized_title_year",
+        columnNames = {"normalized_title", "release_year"}),
+        indexes = @Index(name = "idx_movie_last_fetched_at", columnList = "last_fetched_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Movie {
 
+    /**
+     * Whether the TMDb-derived fields of a movie have been filled in.
+     */
+    public enum EnrichmentStatus {
+        /**
+         * Stored from the OMDb data only; the TMDb fields are still being fetched in the background.
+         */
+        PENDING,
+        /**
+         * The TMDb fields have been fetched.
+         */
+        COMPLETE,
+        /**
+         * The TMDb fields could not be fetched, for example because TMDb was unavailable.
+         */
+        FAILED
+    }
+
     /**
      * Primary key identifier for the movie.
      */
@@ -27,6 +56,14 @@ public class Movie {
      */
     private String title;
 
+    /**
+     * Lower-cased, whitespace-normalized title used to look up already stored movies.
+     * Derived from {@link #title}, see {@link TitleNormalizer}.
+     */
+    @JsonIgnore
+    @Column(name = "normalized_title")
+    private String normalizedTitle;
+
     /**
      * Release year of the movie.
      */
@@ -86,17 +123,17 @@ public class Movie {
     // === TMDb data ===
 
     /**
-     * First image path retrieved from TMDb.
+     * First TMDb image, as a key of the {@link com.example.moviefinder.util.ImageStore}.
      */
     private String imagePath1;
 
     /**
-     * Second image path retrieved from TMDb.
+     * Second TMDb image, as a key of the {@link com.example.moviefinder.util.ImageStore}.
      */
     private String imagePath2;
 
     /**
-     * Third image path retrieved from TMDb.
+     * Third TMDb image, as a key of the {@link com.example.moviefinder.util.ImageStore}.
      */
     private String imagePath3;
 
@@ -115,6 +152,22 @@ public class Movie {
      */
     private String watchProviders;
 
+    /**
+     * Whether the TMDb fields above have been filled in. Clients that see {@code PENDING}
+     * can fetch the movie again later to get them.
+     */
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'COMPLETE'")
+    @Builder.Default
+    private EnrichmentStatus enrichmentStatus = EnrichmentStatus.COMPLETE;
+
+    /**
+     * When the metadata was last fetched from the external APIs. The scheduled refresh
+     * updates the movies with the oldest (or no) timestamp first.
+     */
+    @Column(name = "last_fetched_at")
+    private Instant lastFetchedAt;
+
     /**
      * Whether the movie has been marked as watched by the user.
      */
@@ -124,4 +177,22 @@ public class Movie {
      * User's rating of the movie (1 to 5 scale).
      */
     private Integer rating;
+
+    /**
+     * Version used for optimistic locking; incremented on every update, so concurrent
+     * updates of the same movie cannot silently overwrite each other.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Keeps {@link #normalizedTitle} in sync with {@link #title} before every insert and update.
+     */
+    @PrePersist
+    @PreUpdate
+    public void normalizeTitle() {
+        normalizedTitle = TitleNormalizer.normalize(title);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.moviefinder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Entity mapping a requested title to the movie it was resolved to.
+ * <p>
+ * OMDb resolves loose titles such as {@code "matrix"} to a canonical movie ({@code "The Matrix"}, 1999),
+ * so the stored title alone does not tell which movie a title was added as. Aliases of a movie are
+ * deleted together with it.
+ */
+@Entity
+@Table(name = "movie_alias", indexes = @Index(name = "idx_movie_alias_movie_id", columnList = "movie_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieAlias {
+
+    /**
+     * The requested title, normalized with {@link com.example.moviefinder.util.TitleNormalizer}.
+     */
+    @Id
+    private String alias;
+
+    /**
+     * The movie the title was resolved to.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "movie_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Movie movie;
+}
@@ -0,0 +1,58 @@
+package com.example.moviefinder.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entity holding the last raw response of an upstream API request, gzip-compressed.
+ * <p>
+ * Kept so movies can be rebuilt after a restart or while the APIs are unreachable,
+ * see {@link com.example.moviefinder.util.RawResponseStore}.
+ */
+@Entity
+@Table(name = "raw_response", indexes = @Index(name = "idx_raw_response_fetched_at", columnList = "fetched_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RawResponse {
+
+    /**
+     * Upstream API and request key, e.g. {@code omdb:t=inception} or {@code tmdb:27205?append_to_response=...}.
+     */
+    @Id
+    private String id;
+
+    /**
+     * Name of the upstream API ({@code omdb} or {@code tmdb}).
+     */
+    @Column(nullable = false)
+    private String upstream;
+
+    /**
+     * When the response was fetched.
+     */
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt;
+
+    /**
+     * Size of the uncompressed response in bytes.
+     */
+    private int size;
+
+    /**
+     * Size of the compressed {@link #payload} in bytes.
+     */
+    @Column(name = "compressed_size")
+    private int compressedSize;
+
+    /**
+     * The gzip-compressed response body.
+     */
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload;
+}
@@ -0,0 +1,10 @@
+package com.example.moviefinder.repository;
+
+import com.example.moviefinder.model.MovieAlias;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for the {@link MovieAlias} entities mapping requested titles to stored movies.
+ */
+public interface MovieAliasRepository extends JpaRepository<MovieAlias, String> {
+}
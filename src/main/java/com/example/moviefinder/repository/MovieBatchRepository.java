@@ -0,0 +1,43 @@
+package com.example.moviefinder.repository;
+
+import com.example.moviefinder.dto.MovieChange;
+import com.example.moviefinder.model.Movie;
+
+import java.util.List;
+
+/**
+ * Repository fragment for inserting and updating many {@link Movie} entities at once.
+ * <p>
+ * Implemented with JDBC batches, since Hibernate cannot batch inserts of entities
+ * whose IDs are generated by an identity column, and updates should not load the entities first.
+ */
+public interface MovieBatchRepository {
+
+    /**
+     * Inserts all given movies using a single JDBC batch and assigns their generated IDs.
+     *
+     * @param movies the new movies to insert (without IDs)
+     * @return the same movies, with their IDs set
+     */
+    List<Movie> insertAll(List<Movie> movies);
+
+    /**
+     * Applies watched and rating changes using a single JDBC batch in one transaction.
+     * Every change increments the movie's version; a change with a version only applies
+     * if the movie still has that version.
+     *
+     * @param changes the changes to apply, in order
+     * @return the number of updated rows per change: {@code 0} if the movie does not exist or has another version
+     */
+    int[] updateAll(List<MovieChange> changes);
+
+    /**
+     * Writes refreshed OMDb and TMDb metadata and the fetch time using a single JDBC batch in one transaction.
+     * Watched, rating and the images are left alone. A movie is only updated if it still has its
+     * version, which is then incremented.
+     *
+     * @param movies the movies with their refreshed metadata, stored IDs and versions
+     * @return the number of updated rows per movie: {@code 0} if the movie no longer exists or was changed
+     */
+    int[] updateMetadata(List<Movie> movies);
+}
@@ -0,0 +1,114 @@
+package com.example.moviefinder.repository;
+
+import com.example.moviefinder.dto.MovieChange;
+import com.example.moviefinder.model.Movie;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC implementation of {@link MovieBatchRepository}.
+ * <p>
+ * Picked up by Spring Data as the implementation of the fragment through its {@code Impl} suffix.
+ */
+class MovieBatchRepositoryImpl implements MovieBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO movie (title, normalized_title, release_year, rated, released, runtime, genre, director, actors, plot,
+                               language, imdb_rating, box_office, image_path1, image_path2, image_path3,
+                               keywords, similar_movies, watch_providers, enrichment_status, last_fetched_at, watched, rating, version)
+            VALUES (:title, :normalizedTitle, :year, :rated, :released, :runtime, :genre, :director, :actors, :plot,
+                    :language, :imdbRating, :boxOffice, :imagePath1, :imagePath2, :imagePath3,
+                    :keywords, :similarMovies, :watchProviders, :enrichmentStatus, :lastFetchedAt, :watched, :rating, 0)
+            """;
+
+    private static final String UPDATE_SQL = """
+            UPDATE movie
+            SET watched = COALESCE(:watched, watched), rating = COALESCE(:rating, rating), version = version + 1
+            WHERE id = :id AND (CAST(:version AS BIGINT) IS NULL OR version = :version)
+            """;
+
+    private static final String UPDATE_METADATA_SQL = """
+            UPDATE movie
+            SET rated = :rated, released = :released, runtime = :runtime, genre = :genre, director = :director,
+                actors = :actors, plot = :plot, language = :language, imdb_rating = :imdbRating, box_office = :boxOffice,
+                keywords = :keywords, similar_movies = :similarMovies, watch_providers = :watchProviders,
+                last_fetched_at = :lastFetchedAt, version = version + 1
+            WHERE id = :id AND version = :version
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    MovieBatchRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public List<Movie> insertAll(List<Movie> movies) {
+        if (movies.isEmpty()) {
+            return movies;
+        }
+
+        movies.forEach(Movie::normalizeTitle); // JPA lifecycle callbacks do not run for JDBC inserts
+        SqlParameterSource[] batchArgs = movies.stream()
+                .map(movie -> {
+                    BeanPropertySqlParameterSource source = new BeanPropertySqlParameterSource(movie);
+                    source.registerSqlType("enrichmentStatus", Types.VARCHAR); // stored by name, as by JPA
+                    return source;
+                })
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs, keyHolder, new String[]{"id"});
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != movies.size()) {
+            throw new IllegalStateException("Expected " + movies.size() + " generated keys but got " + keys.size());
+        }
+        for (int i = 0; i < movies.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            movies.get(i).setId(id.longValue());
+            movies.get(i).setVersion(0L);
+        }
+        return movies;
+    }
+
+    @Override
+    @Transactional
+    public int[] updateAll(List<MovieChange> changes) {
+        if (changes.isEmpty()) {
+            return new int[0];
+        }
+
+        // Explicit SQL types, since most changes leave some of the parameters null
+        SqlParameterSource[] batchArgs = changes.stream()
+                .map(change -> new MapSqlParameterSource()
+                        .addValue("id", change.id(), Types.BIGINT)
+                        .addValue("watched", change.watched(), Types.BOOLEAN)
+                        .addValue("rating", change.rating(), Types.INTEGER)
+                        .addValue("version", change.version(), Types.BIGINT))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, batchArgs);
+    }
+
+    @Override
+    @Transactional
+    public int[] updateMetadata(List<Movie> movies) {
+        if (movies.isEmpty()) {
+            return new int[0];
+        }
+
+        SqlParameterSource[] batchArgs = movies.stream()
+                .map(BeanPropertySqlParameterSource::new)
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(UPDATE_METADATA_SQL, batchArgs);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.moviefinder.repository;
+
+import com.example.moviefinder.model.Movie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Repository fragment for reading a client-chosen subset of {@link Movie} columns.
+ * <p>
+ * Only the selected columns are queried and no entities are loaded; every row is returned as a map
+ * from field name to value, which always includes the {@code id}.
+ */
+public interface MovieFieldsRepository {
+
+    /**
+     * Reads the given fields of a page of movies.
+     *
+     * @param fields   the names of the {@link Movie} fields to read
+     * @param pageable the pagination and sorting information
+     * @return a page of field maps
+     * @throws IllegalArgumentException if a field does not exist
+     */
+    Page<Map<String, Object>> findAllFields(Collection<String> fields, Pageable pageable);
+
+    /**
+     * Reads the given fields of the movies with an ID greater than the given one, in ID order.
+     *
+     * @param fields   the names of the {@link Movie} fields to read
+     * @param id       the ID to continue after
+     * @param pageable the slice size; the page number must be {@code 0}
+     * @return the next slice of field maps
+     * @throws IllegalArgumentException if a field does not exist
+     */
+    Slice<Map<String, Object>> findFieldsByIdGreaterThan(Collection<String> fields, Long id, Pageable pageable);
+}
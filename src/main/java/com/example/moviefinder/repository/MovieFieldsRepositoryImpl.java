@@ -0,0 +1,147 @@
+package com.example.moviefinder.repository;
+
+import com.example.moviefinder.model.Movie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.*;
+
+/**
+ * Criteria API implementation of {@link MovieFieldsRepository}.
+ * <p>
+ * Picked up by Spring Data as the implementation of the fragment through its {@code Impl} suffix.
+ */
+class MovieFieldsRepositoryImpl implements MovieFieldsRepository {
+
+    /**
+     * Fields that are not part of the API representation of a movie.
+     */
+    private static final Set<String> HIDDEN_FIELDS = Set.of("normalizedTitle");
+
+    private final EntityManager entityManager;
+
+    MovieFieldsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Map<String, Object>> findAllFields(Collection<String> fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Movie> movie = query.from(Movie.class);
+        List<String> selected = select(query, movie, fields);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), movie, cb));
+
+        List<Tuple> rows = pageable.isPaged()
+                ? entityManager.createQuery(query)
+                        .setFirstResult((int) pageable.getOffset())
+                        .setMaxResults(pageable.getPageSize())
+                        .getResultList()
+                : entityManager.createQuery(query).getResultList();
+        return PageableExecutionUtils.getPage(toMaps(rows, selected), pageable, this::count);
+    }
+
+    @Override
+    public Slice<Map<String, Object>> findFieldsByIdGreaterThan(Collection<String> fields, Long id, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Movie> movie = query.from(Movie.class);
+        List<String> selected = select(query, movie, fields);
+        query.where(cb.greaterThan(movie.get("id"), id));
+        query.orderBy(cb.asc(movie.get("id")));
+
+        // One extra row tells whether another slice follows, without a count query
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<Tuple> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(toMaps(content, selected), pageable, hasNext);
+    }
+
+    /**
+     * Validates the requested fields and adds them, preceded by the ID, to the query's selection.
+     *
+     * @param query  the query to select into
+     * @param movie  the query root
+     * @param fields the requested field names
+     * @return the selected field names, in selection order
+     * @throws IllegalArgumentException if a field does not exist
+     */
+    private List<String> select(CriteriaQuery<Tuple> query, Root<Movie> movie, Collection<String> fields) {
+        Set<String> available = availableFields();
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields) {
+            String name = field.trim();
+            if (!available.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + " (available fields are " + available + ")");
+            }
+            selected.add(name);
+        }
+
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        for (String name : selected) {
+            selections.add(movie.get(name).alias(name));
+        }
+        query.multiselect(selections);
+        return new ArrayList<>(selected);
+    }
+
+    /**
+     * Returns the names of all fields of a movie that can be selected.
+     *
+     * @return the field names, sorted
+     */
+    private Set<String> availableFields() {
+        Set<String> fields = new TreeSet<>();
+        for (Attribute<? super Movie, ?> attribute : entityManager.getMetamodel().entity(Movie.class).getSingularAttributes()) {
+            if (!HIDDEN_FIELDS.contains(attribute.getName())) {
+                fields.add(attribute.getName());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Converts query rows into field maps.
+     *
+     * @param rows   the query rows
+     * @param fields the selected field names
+     * @return one map per row, with the fields in selection order
+     */
+    private List<Map<String, Object>> toMaps(List<Tuple> rows, List<String> fields) {
+        List<Map<String, Object>> maps = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (String field : fields) {
+                map.put(field, row.get(field));
+            }
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    /**
+     * Counts all movies, for the total of a page.
+     *
+     * @return the number of movies
+     */
+    private long count() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        query.select(cb.count(query.from(Movie.class)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
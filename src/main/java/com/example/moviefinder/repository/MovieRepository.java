@@ -1,14 +1,231 @@
 package com.example.moviefinder.repository;
 
+import com.example.moviefinder.dto.MovieSummary;
 import com.example.moviefinder.model.Movie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for {@link Movie} entities.
  * <p>
  * Extends {@link JpaRepository} to provide CRUD operations,
- * pagination, and query method execution for Movie entities.
+ * pagination, and query method execution for Movie entities,
+ * {@link MovieBatchRepository} for JDBC batch inserts,
+ * and {@link MovieFieldsRepository} for reading selected columns.
  */
-public interface MovieRepository extends JpaRepository<Movie, Long> {
-    // No additional methods required for now; JpaRepository provides all basic operations.
-}
\ No newline at end of file
+public interface MovieRepository extends JpaRepository<Movie, Long>, MovieBatchRepository, MovieFieldsRepository {
+
+    /**
+     * Finds the first stored movie with the given normalized title, regardless of release year.
+     *
+     * @param normalizedTitle the normalized title, see {@link com.example.moviefinder.util.TitleNormalizer}
+     * @return the oldest matching movie, if any
+     */
+    Optional<Movie> findFirstByNormalizedTitleOrderByIdAsc(String normalizedTitle);
+
+    /**
+     * Finds the movie a requested title was resolved to when it was added.
+     *
+     * @param alias the requested title, normalized with {@link com.example.moviefinder.util.TitleNormalizer}
+     * @return the movie stored for the title, if any
+     */
+    @Query("select a.movie from MovieAlias a where a.alias = :alias")
+    Optional<Movie> findByAlias(@Param("alias") String alias);
+
+    /**
+     * Finds a stored movie by its natural key.
+     *
+     * @param normalizedTitle the normalized title, see {@link com.example.moviefinder.util.TitleNormalizer}
+     * @param year            the release year
+     * @return the matching movie, if any
+     */
+    Optional<Movie> findByNormalizedTitleAndYear(String normalizedTitle, String year);
+
+    /**
+     * Finds the movies with an ID greater than the given one, in ID order, for keyset pagination.
+     * <p>
+     * The query seeks on the primary key index and reads one row more than the page size to
+     * determine {@link Slice#hasNext()}, so no {@code OFFSET} or {@code COUNT(*)} is needed.
+     *
+     * @param id       the ID to continue after
+     * @param pageable the slice size; the page number must be {@code 0}
+     * @return the next slice of movies
+     */
+    Slice<Movie> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Finds a page of movie summaries, reading only the summary columns.
+     *
+     * @param pageable the pagination and sorting information
+     * @return a page of {@link MovieSummary} objects
+     */
+    @Query(value = "select new com.example.moviefinder.dto.MovieSummary(m.id, m.title, m.year, m.imagePath1, m.watched, m.rating) "
+            + "from Movie m",
+            countQuery = "select count(m) from Movie m")
+    Page<MovieSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Finds the summaries of the movies with an ID greater than the given one, in ID order, for keyset pagination.
+     *
+     * @param id       the ID to continue after
+     * @param pageable the slice size; the page number must be {@code 0}
+     * @return the next slice of {@link MovieSummary} objects
+     */
+    @Query("select new com.example.moviefinder.dto.MovieSummary(m.id, m.title, m.year, m.imagePath1, m.watched, m.rating) "
+            + "from Movie m where m.id > :id order by m.id")
+    Slice<MovieSummary> findSummariesByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Sets the watched flag of a movie with a single UPDATE statement, without loading it.
+     * The version is incremented, and if an expected version is given, the row is only updated
+     * when it still has that version.
+     *
+     * @param id      the ID of the movie
+     * @param watched the new watched status
+     * @param version the expected current version, or {@code null} to update regardless
+     * @return the number of updated rows: {@code 0} if the movie does not exist or has another version
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Movie m set m.watched = :watched, m.version = m.version + 1 "
+            + "where m.id = :id and (:version is null or m.version = :version)")
+    int updateWatched(@Param("id") Long id, @Param("watched") boolean watched, @Param("version") Long version);
+
+    /**
+     * Sets the user rating of a movie with a single UPDATE statement, without loading it.
+     * The version is incremented, and if an expected version is given, the row is only updated
+     * when it still has that version.
+     *
+     * @param id      the ID of the movie
+     * @param rating  the new rating
+     * @param version the expected current version, or {@code null} to update regardless
+     * @return the number of updated rows: {@code 0} if the movie does not exist or has another version
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Movie m set m.rating = :rating, m.version = m.version + 1 "
+            + "where m.id = :id and (:version is null or m.version = :version)")
+    int updateRating(@Param("id") Long id, @Param("rating") int rating, @Param("version") Long version);
+
+    /**
+     * Sets the watched flag of a movie like {@link #updateWatched(Long, boolean, Long)} and returns its new version.
+     * Without an expected version, the new version is read back in the same transaction, so it is the version
+     * written by this update and not one of a concurrent update.
+     *
+     * @param id      the ID of the movie
+     * @param watched the new watched status
+     * @param version the expected current version, or {@code null} to update regardless
+     * @return the new version, or empty if the movie does not exist or has another version
+     */
+    @Transactional
+    default Optional<Long> updateWatchedReturningVersion(Long id, boolean watched, Long version) {
+        return updateWatched(id, watched, version) > 0 ? newVersion(id, version) : Optional.empty();
+    }
+
+    /**
+     * Sets the user rating of a movie like {@link #updateRating(Long, int, Long)} and returns its new version.
+     * Without an expected version, the new version is read back in the same transaction, so it is the version
+     * written by this update and not one of a concurrent update.
+     *
+     * @param id      the ID of the movie
+     * @param rating  the new rating
+     * @param version the expected current version, or {@code null} to update regardless
+     * @return the new version, or empty if the movie does not exist or has another version
+     */
+    @Transactional
+    default Optional<Long> updateRatingReturningVersion(Long id, int rating, Long version) {
+        return updateRating(id, rating, version) > 0 ? newVersion(id, version) : Optional.empty();
+    }
+
+    /**
+     * Returns the version of a movie after an update, read from the database only if the update had no expected version.
+     *
+     * @param id      the ID of the updated movie
+     * @param version the expected version of the update, or {@code null}
+     * @return the new version
+     */
+    private Optional<Long> newVersion(Long id, Long version) {
+        return version != null ? Optional.of(version + 1) : findVersionById(id);
+    }
+
+    /**
+     * Returns the current version of a movie without loading it.
+     *
+     * @param id the ID of the movie
+     * @return the version, or empty if the movie does not exist
+     */
+    @Query("select m.version from Movie m where m.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Returns which of the given IDs belong to stored movies, without loading the movies.
+     *
+     * @param ids the IDs to check
+     * @return the IDs of the stored movies
+     */
+    @Query("select m.id from Movie m where m.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Stores the TMDb fields and enrichment status of a movie with a single UPDATE statement.
+     * Only these columns are written, so watched and rating changes made while the movie was
+     * being enriched are kept; the version is incremented.
+     *
+     * @param movie the movie with its TMDb fields and enrichment status set
+     * @return the number of updated rows: {@code 0} if the movie no longer exists
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Movie m set m.keywords = :#{#movie.keywords}, m.similarMovies = :#{#movie.similarMovies}, "
+            + "m.watchProviders = :#{#movie.watchProviders}, m.imagePath1 = :#{#movie.imagePath1}, "
+            + "m.imagePath2 = :#{#movie.imagePath2}, m.imagePath3 = :#{#movie.imagePath3}, "
+            + "m.enrichmentStatus = :#{#movie.enrichmentStatus}, m.version = m.version + 1 "
+            + "where m.id = :#{#movie.id}")
+    int updateEnrichment(@Param("movie") Movie movie);
+
+    /**
+     * Finds the movies whose metadata was fetched longest ago, starting with those never fetched,
+     * that come after the given position in that order.
+     * <p>
+     * The position is the fetch time and ID of the last movie of the previous batch, so every batch
+     * seeks past the movies already selected, even those that are still stale (e.g. after a conflict).
+     *
+     * @param cutoff   only movies fetched before this time are returned
+     * @param after    the fetch time of the last movie selected, or {@code null} if it was never fetched
+     *                 or no movie was selected yet
+     * @param afterId  the ID of the last movie selected, or {@code 0} if no movie was selected yet
+     * @param pageable the maximum number of movies to return; the page number must be {@code 0}
+     * @return the next stalest movies, oldest first
+     */
+    @Query("select m from Movie m "
+            + "where (m.lastFetchedAt is null and :after is null and m.id > :afterId) "
+            + "or (m.lastFetchedAt < :cutoff and (:after is null or m.lastFetchedAt > :after "
+            + "or (m.lastFetchedAt = :after and m.id > :afterId))) "
+            + "order by m.lastFetchedAt asc nulls first, m.id asc")
+    List<Movie> findStale(@Param("cutoff") Instant cutoff, @Param("after") Instant after,
+                          @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Records that the metadata of the given movies was fetched, without changing anything else.
+     * The version is not incremented, since the movies' data stays the same.
+     *
+     * @param ids       the IDs of the movies
+     * @param fetchedAt when the metadata was fetched
+     * @return the number of updated rows
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Movie m set m.lastFetchedAt = :fetchedAt where m.id in :ids")
+    int markFetched(@Param("ids") Collection<Long> ids, @Param("fetchedAt") Instant fetchedAt);
+}
@@ -0,0 +1,21 @@
+package com.example.moviefinder.repository;
+
+import com.example.moviefinder.model.RawResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Repository interface for the {@link RawResponse} entities of the persistent response cache.
+ */
+public interface RawResponseRepository extends JpaRepository<RawResponse, String> {
+
+    /**
+     * Returns the number of stored responses and their total compressed and uncompressed sizes per upstream API.
+     *
+     * @return rows of upstream name, count, compressed bytes and uncompressed bytes
+     */
+    @Query("select r.upstream, count(r), sum(r.compressedSize), sum(r.size) from RawResponse r group by r.upstream")
+    List<Object[]> sizesByUpstream();
+}
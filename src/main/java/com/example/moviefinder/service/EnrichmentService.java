@@ -0,0 +1,152 @@
+package com.example.moviefinder.service;
+
+import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.repository.MovieRepository;
+import com.example.moviefinder.util.MovieCache;
+import com.example.moviefinder.util.MovieDataFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background worker filling in the TMDb data of movies stored by a two-phase ingest.
+ * <p>
+ * Each movie is enriched on the bounded {@code enrichmentExecutor}. The result is written with a
+ * targeted UPDATE of the TMDb columns only, so it never overwrites a watched or rating change made
+ * in the meantime. If TMDb cannot be reached, the movie's enrichment status becomes {@code FAILED}.
+ * <p>
+ * The same worker restores the images of a movie whose stored images were evicted from the
+ * {@link com.example.moviefinder.util.ImageStore}: its TMDb data is fetched again, the missing images
+ * are downloaded again, and the movie's image keys are updated.
+ */
+@Service
+public class EnrichmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnrichmentService.class);
+
+    @Autowired
+    private MovieRepository repository;
+
+    @Autowired
+    private MovieDataFetcher movieDataFetcher;
+
+    @Autowired
+    private MovieCache movieCache;
+
+    @Autowired
+    @Qualifier("enrichmentExecutor")
+    private Executor enrichmentExecutor;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong imagesRestored = new AtomicLong();
+
+    /**
+     * IDs of the movies whose images are being restored, so a movie is queued only once.
+     */
+    private final Set<Long> restoringImages = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Queues a stored movie for enrichment.
+     *
+     * @param movie the stored movie, with enrichment {@code PENDING}
+     * @return {@code true} if the movie was queued, {@code false} if the queue is full
+     */
+    public boolean schedule(Movie movie) {
+        // Work on a copy, so the caller's entity is not changed from another thread
+        Movie copy = movie.toBuilder().build();
+        try {
+            enrichmentExecutor.execute(() -> enrich(copy));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            log.warn("Enrichment queue is full, {} stays pending", movie.getTitle());
+            return false;
+        }
+    }
+
+    /**
+     * Queues a stored movie whose images were evicted to have them downloaded again.
+     * Does nothing if the movie is already queued.
+     *
+     * @param movie the stored movie
+     * @return {@code true} if the movie was queued, {@code false} if it already is or the queue is full
+     */
+    public boolean scheduleImageRestore(Movie movie) {
+        if (!restoringImages.add(movie.getId())) {
+            return false;
+        }
+        Movie copy = movie.toBuilder().build();
+        try {
+            enrichmentExecutor.execute(() -> restoreImages(copy));
+            return true;
+        } catch (RejectedExecutionException e) {
+            restoringImages.remove(movie.getId());
+            rejected.incrementAndGet();
+            log.warn("Enrichment queue is full, not restoring the images of {}", movie.getTitle());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the enrichment counters.
+     *
+     * @return a map with the number of completed, failed and rejected enrichments and of restored images
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("imagesRestored", imagesRestored.get());
+        return stats;
+    }
+
+    /**
+     * Fetches the TMDb data of a movie and stores it, or marks the enrichment as failed.
+     *
+     * @param movie the movie to enrich
+     */
+    void enrich(Movie movie) {
+        try {
+            movieDataFetcher.enrichMovie(movie);
+            completed.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Could not enrich {} from TMDb: {}", movie.getTitle(), e.getMessage());
+            movie.setEnrichmentStatus(Movie.EnrichmentStatus.FAILED);
+            failed.incrementAndGet();
+        }
+        repository.updateEnrichment(movie);
+        movieCache.evict(movie.getId());
+    }
+
+    /**
+     * Fetches the TMDb data of a movie again, downloading the images that are no longer stored,
+     * and stores the new image keys. If TMDb cannot be reached, the movie is left unchanged.
+     *
+     * @param movie the movie whose images to restore
+     */
+    void restoreImages(Movie movie) {
+        try {
+            movieDataFetcher.enrichMovie(movie);
+            repository.updateEnrichment(movie);
+            movieCache.evict(movie.getId());
+            imagesRestored.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("Could not restore the images of {}: {}", movie.getTitle(), e.getMessage());
+        } finally {
+            restoringImages.remove(movie.getId());
+        }
+    }
+}
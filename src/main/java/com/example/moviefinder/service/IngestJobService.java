@@ -0,0 +1,186 @@
+package com.example.moviefinder.service;
+
+import com.example.moviefinder.dto.IngestJob;
+import com.example.moviefinder.exceptions.TooManyRequestsException;
+import com.example.moviefinder.model.Movie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service running movie ingests in the background, so the request that submits them returns immediately.
+ * <p>
+ * Jobs run on the bounded {@code asyncIngestExecutor}. When its queue is full, new jobs are rejected
+ * with a {@link TooManyRequestsException} rather than queued without limit. Finished jobs are kept for
+ * {@code moviefinder.async-ingest.job-retention} so their status can be polled.
+ */
+@Service
+public class IngestJobService {
+
+    /**
+     * How long a client should wait before submitting again after the queue was full.
+     */
+    private static final Duration QUEUE_FULL_RETRY_AFTER = Duration.ofSeconds(5);
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    @Qualifier("asyncIngestExecutor")
+    private Executor asyncIngestExecutor;
+
+    /**
+     * How long finished jobs remain available for status requests.
+     */
+    @Value("${moviefinder.async-ingest.job-retention:PT1H}")
+    private Duration jobRetention = Duration.ofHours(1);
+
+    /**
+     * Maximum length of a title accepted for an asynchronous ingest.
+     */
+    @Value("${moviefinder.async-ingest.max-title-length:200}")
+    private int maxTitleLength = 200;
+
+    private Clock clock = Clock.systemUTC();
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Validates the title and queues a job that adds the movie.
+     *
+     * @param title   the title of the movie to add
+     * @param refresh whether to fetch the movie even if it is already stored
+     * @return the status of the new job
+     * @throws IllegalArgumentException if the title is empty or too long
+     * @throws TooManyRequestsException if the job queue is full
+     */
+    public IngestJob submit(String title, boolean refresh) {
+        String trimmed = title == null ? "" : title.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Title must not be empty");
+        }
+        if (trimmed.length() > maxTitleLength) {
+            throw new IllegalArgumentException("Title is too long (maximum is " + maxTitleLength + " characters)");
+        }
+
+        removeExpiredJobs();
+        Job job = new Job(UUID.randomUUID(), trimmed, clock.instant());
+        jobs.put(job.id, job);
+        try {
+            asyncIngestExecutor.execute(() -> run(job, refresh));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException("Ingest queue is full, try again later", QUEUE_FULL_RETRY_AFTER);
+        }
+        submitted.incrementAndGet();
+        return job.snapshot();
+    }
+
+    /**
+     * Returns the status of a job.
+     *
+     * @param id the ID of the job
+     * @return the job's status, or empty if the job is unknown or expired
+     */
+    public Optional<IngestJob> getJob(UUID id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::snapshot);
+    }
+
+    /**
+     * Returns the number of jobs per status and the submission counters.
+     *
+     * @return a map with job counts and counters
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (IngestJob.Status status : IngestJob.Status.values()) {
+            stats.put(status.name().toLowerCase(), jobs.values().stream().filter(job -> job.status == status).count());
+        }
+        stats.put("submitted", submitted.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    /**
+     * Runs a job on the executor and records its outcome.
+     *
+     * @param job     the job to run
+     * @param refresh whether to fetch the movie even if it is already stored
+     */
+    private void run(Job job, boolean refresh) {
+        job.status = IngestJob.Status.RUNNING;
+        IngestJob.Status outcome;
+        try {
+            Movie movie = movieService.addMovieByTitle(job.title, refresh);
+            job.movieId = movie.getId();
+            outcome = IngestJob.Status.SUCCEEDED;
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            outcome = IngestJob.Status.FAILED;
+        }
+        job.finishedAt = clock.instant();
+        job.status = outcome;
+    }
+
+    /**
+     * Forgets finished jobs older than the retention period.
+     */
+    private void removeExpiredJobs() {
+        Instant cutoff = clock.instant().minus(jobRetention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Mutable state of a job, updated by the executor thread and read by status requests.
+     */
+    private static final class Job {
+        private final UUID id;
+        private final String title;
+        private final Instant submittedAt;
+        private volatile IngestJob.Status status = IngestJob.Status.QUEUED;
+        private volatile Long movieId;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        /**
+         * Creates a queued job.
+         *
+         * @param id          the ID of the job
+         * @param title       the title to add
+         * @param submittedAt when the job was accepted
+         */
+        private Job(UUID id, String title, Instant submittedAt) {
+            this.id = id;
+            this.title = title;
+            this.submittedAt = submittedAt;
+        }
+
+        /**
+         * Returns an immutable view of the job's current state.
+         *
+         * @return the job status
+         */
+        private IngestJob snapshot() {
+            // The status is written last by the job, so read it first for a consistent view
+            IngestJob.Status current = status;
+            return new IngestJob(id, title, current, movieId, error, submittedAt, finishedAt);
+        }
+    }
+}
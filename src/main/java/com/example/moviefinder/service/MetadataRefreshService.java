@@ -0,0 +1,284 @@
+package com.example.moviefinder.service;
+
+import com.example.moviefinder.dto.RebuildResponse;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.repository.MovieRepository;
+import com.example.moviefinder.util.MovieCache;
+import com.example.moviefinder.util.MovieDataFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Scheduled worker keeping the stored metadata (ratings, box office, watch providers, ...) up to date.
+ * <p>
+ * Every run selects the movies fetched longest ago in batches and re-fetches them one after another
+ * on the scheduler thread, so the ingest executors are never used. The upstream calls only take spare
+ * capacity from the rate limiters; as soon as an API has none left, or the run's request budget is
+ * used up, the run stops and the remaining movies wait for the next run.
+ * <p>
+ * Only movies whose metadata actually changed are written back, with one JDBC batch per batch of
+ * movies; for the others only the fetch time is updated.
+ * <p>
+ * {@link #rebuildFromStoredResponses()} applies the same comparison to metadata rebuilt from the
+ * cached responses, so changes to how movies are built can be applied without calling the APIs.
+ */
+@Service
+public class MetadataRefreshService {
+
+    private static final Logger log = LoggerFactory.getLogger(MetadataRefreshService.class);
+
+    /**
+     * Upstream requests needed to refresh one movie: the OMDb lookup, the TMDb search and the combined TMDb details,
+     * which include the watch providers.
+     */
+    static final int REQUESTS_PER_MOVIE = 3;
+
+    /**
+     * The refreshed fields compared to decide whether a movie changed.
+     */
+    private static final List<Function<Movie, Object>> METADATA_FIELDS = List.of(
+            Movie::getRated, Movie::getReleased, Movie::getRuntime, Movie::getGenre, Movie::getDirector,
+            Movie::getActors, Movie::getPlot, Movie::getLanguage, Movie::getImdbRating, Movie::getBoxOffice,
+            Movie::getKeywords, Movie::getSimilarMovies, Movie::getWatchProviders);
+
+    @Autowired
+    private MovieRepository repository;
+
+    @Autowired
+    private MovieDataFetcher movieDataFetcher;
+
+    @Autowired
+    private MovieCache movieCache;
+
+    /**
+     * Whether the scheduled refresh runs at all.
+     */
+    @Value("${moviefinder.refresh.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * How old a movie's metadata must be before it is refreshed.
+     */
+    @Value("${moviefinder.refresh.max-age:P7D}")
+    private Duration maxAge = Duration.ofDays(7);
+
+    /**
+     * Number of movies selected and written back at a time.
+     */
+    @Value("${moviefinder.refresh.batch-size:20}")
+    private int batchSize = 20;
+
+    /**
+     * Maximum number of upstream requests made by one run.
+     */
+    @Value("${moviefinder.refresh.request-budget:150}")
+    private int requestBudget = 150;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong changed = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private volatile Instant lastRunAt;
+
+    /**
+     * Runs a refresh at the configured interval, if the refresh is enabled.
+     */
+    @Scheduled(initialDelayString = "${moviefinder.refresh.initial-delay:PT5M}",
+            fixedDelayString = "${moviefinder.refresh.interval:PT1H}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refreshStaleMovies();
+        }
+    }
+
+    /**
+     * Refreshes the stalest movies until the request budget is used up, no stale movies are left,
+     * or an API has no spare capacity.
+     *
+     * @return the number of stale movies selected in this run
+     */
+    public int refreshStaleMovies() {
+        runs.incrementAndGet();
+        lastRunAt = Instant.now();
+        Instant cutoff = lastRunAt.minus(maxAge);
+        int maxMovies = requestBudget / REQUESTS_PER_MOVIE;
+        int selected = 0;
+        Instant after = null;
+        long afterId = 0;
+
+        while (selected < maxMovies) {
+            List<Movie> batch = repository.findStale(cutoff, after, afterId,
+                    PageRequest.of(0, Math.min(batchSize, maxMovies - selected)));
+            if (batch.isEmpty()) {
+                break;
+            }
+            // Seek past this batch, so movies that stay stale (e.g. after a conflict) are not selected again
+            selected += batch.size();
+            Movie last = batch.get(batch.size() - 1);
+            after = last.getLastFetchedAt();
+            afterId = last.getId();
+            if (!refreshBatch(batch)) {
+                break;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Rebuilds the metadata of all stored movies from the cached OMDb and TMDb responses,
+     * walking the movies in ID order one batch at a time. No API is called.
+     * Only movies whose metadata changed are written back; their fetch time is kept.
+     *
+     * @return how many movies were updated or unchanged, and which could not be rebuilt
+     */
+    public RebuildResponse rebuildFromStoredResponses() {
+        int updated = 0;
+        int unchangedCount = 0;
+        List<Long> notRebuilt = new ArrayList<>();
+        List<Long> conflictIds = new ArrayList<>();
+        long lastId = 0;
+        Slice<Movie> slice;
+
+        do {
+            slice = repository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+            List<Movie> changedMovies = new ArrayList<>();
+            for (Movie stored : slice) {
+                lastId = stored.getId();
+                Movie rebuilt;
+                try {
+                    rebuilt = movieDataFetcher.rebuildMetadata(stored);
+                } catch (RuntimeException e) {
+                    notRebuilt.add(stored.getId());
+                    continue;
+                }
+                if (hasChanged(stored, rebuilt)) {
+                    rebuilt.setId(stored.getId());
+                    rebuilt.setVersion(stored.getVersion());
+                    rebuilt.setLastFetchedAt(stored.getLastFetchedAt());
+                    changedMovies.add(rebuilt);
+                } else {
+                    unchangedCount++;
+                }
+            }
+
+            int[] counts = changedMovies.isEmpty() ? new int[0] : repository.updateMetadata(changedMovies);
+            movieCache.evictAll(changedMovies.stream().map(Movie::getId).toList());
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    updated++;
+                } else {
+                    conflictIds.add(changedMovies.get(i).getId());
+                }
+            }
+        } while (slice.hasNext());
+
+        return new RebuildResponse(updated, unchangedCount, notRebuilt, conflictIds);
+    }
+
+    /**
+     * Returns the refresh counters.
+     *
+     * @return a map with run and movie counters and the time of the last run
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("runs", runs.get());
+        stats.put("checked", checked.get());
+        stats.put("changed", changed.get());
+        stats.put("unchanged", unchanged.get());
+        stats.put("failed", failed.get());
+        stats.put("conflicts", conflicts.get());
+        stats.put("deferred", deferred.get());
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+
+    /**
+     * Re-fetches a batch of movies and writes back the results.
+     *
+     * @param batch the stored movies to refresh
+     * @return {@code false} if an API ran out of spare capacity and the run should stop
+     */
+    private boolean refreshBatch(List<Movie> batch) {
+        List<Movie> changedMovies = new ArrayList<>();
+        List<Long> fetchedIds = new ArrayList<>();
+        boolean capacityLeft = true;
+
+        for (Movie stored : batch) {
+            Movie fresh;
+            try {
+                fresh = movieDataFetcher.fetchFreshMetadata(stored);
+            } catch (UpstreamUnavailableException e) {
+                deferred.incrementAndGet();
+                capacityLeft = false;
+                break;
+            } catch (RuntimeException e) {
+                // Not retried before the movie is stale again, so a missing movie does not use up every run's budget
+                log.warn("Could not refresh {}: {}", stored.getTitle(), e.getMessage());
+                failed.incrementAndGet();
+                fetchedIds.add(stored.getId());
+                continue;
+            }
+
+            checked.incrementAndGet();
+            if (hasChanged(stored, fresh)) {
+                fresh.setId(stored.getId());
+                fresh.setVersion(stored.getVersion());
+                changedMovies.add(fresh);
+            } else {
+                unchanged.incrementAndGet();
+                fetchedIds.add(stored.getId());
+            }
+        }
+
+        if (!changedMovies.isEmpty()) {
+            int[] counts = repository.updateMetadata(changedMovies);
+            movieCache.evictAll(changedMovies.stream().map(Movie::getId).toList());
+            for (int count : counts) {
+                if (count > 0) {
+                    changed.incrementAndGet();
+                } else {
+                    // Changed or deleted in the meantime; the movie stays stale and is refreshed in a later run
+                    conflicts.incrementAndGet();
+                }
+            }
+        }
+        if (!fetchedIds.isEmpty()) {
+            repository.markFetched(fetchedIds, Instant.now());
+            movieCache.evictAll(fetchedIds);
+        }
+        return capacityLeft;
+    }
+
+    /**
+     * Checks whether any refreshed metadata field differs from the stored value.
+     *
+     * @param stored the stored movie
+     * @param fresh  the freshly fetched movie
+     * @return {@code true} if the movie needs to be written back
+     */
+    private boolean hasChanged(Movie stored, Movie fresh) {
+        return METADATA_FIELDS.stream().anyMatch(field -> !Objects.equals(field.apply(stored), field.apply(fresh)));
+    }
+}
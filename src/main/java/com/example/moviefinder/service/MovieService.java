@@ -1,30 +1,123 @@
 package com.example.moviefinder.service;
 
+import com.example.moviefinder.dto.BatchIngestResponse;
+import com.example.moviefinder.dto.BatchIngestResult;
+import com.example.moviefinder.dto.BulkUpdateResponse;
+import com.example.moviefinder.dto.MovieChange;
+import com.example.moviefinder.dto.MovieSlice;
+import com.example.moviefinder.dto.MovieSummary;
+import com.example.moviefinder.dto.MovieUpdate;
 import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.model.MovieAlias;
+import com.example.moviefinder.repository.MovieAliasRepository;
 import com.example.moviefinder.repository.MovieRepository;
+import com.example.moviefinder.util.KeysetCursor;
+import com.example.moviefinder.util.MovieCache;
 import com.example.moviefinder.util.MovieDataFetcher;
+import com.example.moviefinder.util.SingleFlight;
+import com.example.moviefinder.util.TitleNormalizer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * Service class for managing movie-related operations such as adding,
  * retrieving, updating, and deleting movies from the database.
+ * <p>
+ * Single movies are read through the {@link MovieCache}; every method that changes a stored
+ * movie evicts it from there once the change is written.
  */
 @Service
 public class MovieService {
 
+    private static final Logger log = LoggerFactory.getLogger(MovieService.class);
+
+    /**
+     * Value of the {@code fields} parameter that selects the {@link MovieSummary} projection.
+     */
+    public static final String SUMMARY_FIELDS = "summary";
+
     @Autowired
     private MovieRepository repository;
 
+    @Autowired
+    private MovieAliasRepository aliasRepository;
+
     @Autowired
     private MovieDataFetcher movieDataFetcher;
 
+    @Autowired
+    private EnrichmentService enrichmentService;
+
+    @Autowired
+    private MovieCache movieCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("batchIngestExecutor")
+    private Executor batchIngestExecutor;
+
+    /**
+     * Coalesces concurrent adds of the same (normalized) title into one fetch and one saved entity.
+     */
+    private final SingleFlight<String, Movie> inFlightAdds = new SingleFlight<>();
+
+    /**
+     * Whether adding a title that is already stored returns the stored movie without calling the external APIs.
+     */
+    @Value("${moviefinder.ingest.reuse-existing:true}")
+    private boolean reuseExisting = true;
+
+    /**
+     * Maximum number of titles accepted in a single batch request.
+     */
+    @Value("${moviefinder.batch.max-titles:2000}")
+    private int maxBatchTitles = 2000;
+
+    /**
+     * Maximum number of movies returned in a single keyset-paginated slice.
+     */
+    @Value("${moviefinder.listing.max-slice-size:100}")
+    private int maxSliceSize = 100;
+
+    /**
+     * Maximum number of IDs or changes accepted in a single multi-get or bulk update request.
+     */
+    @Value("${moviefinder.bulk.max-size:500}")
+    private int maxBulkSize = 500;
+
+    /**
+     * Minimum size of an encoded movie response that is also kept gzip-compressed.
+     */
+    @Value("${moviefinder.movie-cache.gzip-min-size:1024}")
+    private int gzipMinSize = 1024;
+
     /**
      * Adds a new movie to the database using the provided title.
      * Fetches data from external APIs (OMDb, TMDb) and builds the Movie entity.
+     * <p>
+     * If a movie with the same normalized title is already stored (and reuse is enabled through
+     * {@code moviefinder.ingest.reuse-existing}), it is returned without calling the external APIs.
+     * Concurrent calls for the same title (ignoring case and extra whitespace) share a single
+     * fetch and return the same saved entity.
      *
      * @param title the title of the movie to fetch and add
      * @return the saved {@link Movie} entity
@@ -32,56 +125,571 @@ public class MovieService {
      *         if fetching movie data fails
      */
     public Movie addMovieByTitle(String title) {
-        Movie movie = movieDataFetcher.fetchAndBuildMovie(title); // may throw custom runtime exceptions
-        return repository.save(movie);
+        return addMovieByTitle(title, false);
+    }
+
+    /**
+     * Adds a movie by title, optionally forcing a refresh from the external APIs.
+     * <p>
+     * With {@code refresh} set, the stored movie (if any) is not reused: the data is fetched again
+     * and written over the stored row, keeping its ID, watched flag and rating.
+     *
+     * @param title   the title of the movie to fetch and add
+     * @param refresh whether to fetch the movie even if it is already stored
+     * @return the saved {@link Movie} entity
+     * @throws com.example.moviefinder.exceptions.MovieDataFetchException
+     *         if fetching movie data fails
+     */
+    public Movie addMovieByTitle(String title, boolean refresh) {
+        return addMovieByTitle(title, refresh, false);
+    }
+
+    /**
+     * Adds a movie by title, optionally storing it before its TMDb data is fetched.
+     * <p>
+     * With {@code deferEnrichment} set, only OMDb is called before the movie is saved and returned
+     * with enrichment {@code PENDING}; the {@link EnrichmentService} then fills in the TMDb fields
+     * (keywords, similar movies, watch providers and images) in the background.
+     *
+     * @param title           the title of the movie to fetch and add
+     * @param refresh         whether to fetch the movie even if it is already stored
+     * @param deferEnrichment whether to fetch the TMDb data after saving the movie
+     * @return the saved {@link Movie} entity
+     * @throws com.example.moviefinder.exceptions.MovieDataFetchException
+     *         if fetching movie data fails
+     */
+    public Movie addMovieByTitle(String title, boolean refresh, boolean deferEnrichment) {
+        if (!refresh) {
+            Optional<Movie> stored = findStored(title);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+        }
+
+        String alias = TitleNormalizer.normalize(title);
+        return inFlightAdds.execute(alias, () -> {
+            if (!deferEnrichment) {
+                Movie movie = movieDataFetcher.fetchAndBuildMovie(title); // may throw custom runtime exceptions
+                Movie saved = repository.save(mergeWithStored(movie));
+                movieCache.evict(saved.getId());
+                saveAliases(Map.of(alias, saved));
+                return saved;
+            }
+            Movie saved = repository.save(mergeWithStored(movieDataFetcher.fetchCoreMovie(title)));
+            movieCache.evict(saved.getId());
+            saveAliases(Map.of(alias, saved));
+            enrichmentService.schedule(saved);
+            return saved;
+        });
+    }
+
+    /**
+     * Adds many movies at once. Titles are fetched concurrently on the batch ingest executor,
+     * whose pool size limits how many fetches run at the same time, and the new movies
+     * are stored with a single JDBC batch insert.
+     * <p>
+     * Titles that are already stored are reported as existing without calling the external APIs,
+     * and titles that resolve to the same movie are stored only once. Fetches share the in-flight
+     * deduplication of {@link #addMovieByTitle(String)}: a title that is being added concurrently is
+     * not fetched again but reported as existing once that add completes, and concurrent adds of a
+     * title that is part of the batch wait for the batch and return the movie it stored. A movie that
+     * another request (e.g. a concurrent batch) stored in the meantime is reported as existing as well.
+     * A title that cannot be fetched or stored is reported as failed without failing the whole batch.
+     *
+     * @param titles the titles to add; blank entries are ignored
+     * @return the outcome of every non-blank title, in request order
+     * @throws IllegalArgumentException if no titles or more than the configured maximum are given
+     */
+    public BatchIngestResponse addMoviesByTitles(List<String> titles) {
+        List<String> requested = titles.stream()
+                .filter(title -> title != null && !title.isBlank())
+                .map(String::trim)
+                .toList();
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("No titles provided");
+        }
+        if (requested.size() > maxBatchTitles) {
+            throw new IllegalArgumentException("Too many titles: " + requested.size() + " (maximum is " + maxBatchTitles + ")");
+        }
+
+        // Step 1: Resolve every distinct title to a stored or freshly fetched movie, joining adds in flight
+        Map<String, CompletableFuture<Movie>> fetches = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Movie>> flights = new HashMap<>();
+        for (String title : requested) {
+            fetches.computeIfAbsent(TitleNormalizer.normalize(title), key -> {
+                CompletableFuture<Movie> flight = new BatchFlight();
+                CompletableFuture<Movie> running = inFlightAdds.register(key, flight);
+                if (running == flight) {
+                    flights.put(key, flight);
+                } else if (!(running instanceof BatchFlight)) {
+                    return running;
+                }
+                // Other batches are not joined, since they may wait for this one in turn
+                return CompletableFuture.supplyAsync(
+                        () -> findStored(title).orElseGet(() -> movieDataFetcher.fetchAndBuildMovie(title)),
+                        batchIngestExecutor);
+            });
+        }
+
+        Map<String, Movie> resolved = new HashMap<>();
+        Map<String, Throwable> failures = new HashMap<>();
+        try {
+            fetches.forEach((key, fetch) -> {
+                try {
+                    resolved.put(key, fetch.join());
+                } catch (CompletionException e) {
+                    failures.put(key, e.getCause() != null ? e.getCause() : e);
+                }
+            });
+            List<BatchIngestResult> results = storeBatch(requested, resolved, failures);
+            flights.forEach((key, flight) -> complete(flight, resolved.get(key), failures.get(key)));
+            return BatchIngestResponse.of(results);
+        } finally {
+            // Never leave concurrent adds of these titles waiting, e.g. if storing the batch threw
+            flights.values().forEach(flight -> flight.completeExceptionally(
+                    new IllegalStateException("Batch ingest of the movie failed")));
+        }
+    }
+
+    /**
+     * Stores the movies resolved by a batch ingest and reports the outcome of every requested title.
+     * Movies that could not be stored are removed from {@code resolved} and added to {@code failures}.
+     *
+     * @param requested the requested titles, in request order
+     * @param resolved  the stored or fetched movie of every title that was resolved, by normalized title
+     * @param failures  the error of every title that could not be resolved, by normalized title
+     * @return the outcome of every requested title, in request order
+     */
+    private List<BatchIngestResult> storeBatch(List<String> requested, Map<String, Movie> resolved,
+                                               Map<String, Throwable> failures) {
+        // Step 2: Split fetched movies into updates of stored rows and new rows, one per natural key
+        Map<String, Movie> inserts = new LinkedHashMap<>();
+        Map<Long, Movie> updates = new LinkedHashMap<>();
+        Set<String> fetched = new HashSet<>();
+        resolved.replaceAll((key, movie) -> {
+            if (movie.getId() != null) {
+                return movie; // already stored, nothing fetched
+            }
+            fetched.add(key);
+            Movie merged = mergeWithStored(movie);
+            if (merged.getId() != null) {
+                return updates.computeIfAbsent(merged.getId(), id -> merged);
+            }
+            return inserts.computeIfAbsent(naturalKey(merged), naturalKey -> merged);
+        });
+
+        // Step 3: Store new rows in one batch and refresh updated ones
+        Set<Movie> created = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<Movie, Movie> duplicates = new IdentityHashMap<>();
+        created.addAll(saveAll(new ArrayList<>(inserts.values()), duplicates));
+        Map<Movie, String> failed = saveUpdates(updates.values());
+        inserts.values().stream()
+                .filter(movie -> movie.getId() == null && !duplicates.containsKey(movie))
+                .forEach(movie -> failed.put(movie, "Failed to store movie"));
+        resolved.replaceAll((key, movie) -> duplicates.getOrDefault(movie, movie));
+        resolved.entrySet().removeIf(entry -> {
+            String failure = failed.get(entry.getValue());
+            if (failure != null) {
+                failures.put(entry.getKey(), new IllegalStateException(failure));
+            }
+            return failure != null;
+        });
+
+        List<BatchIngestResult> results = new ArrayList<>();
+        for (String title : requested) {
+            String key = TitleNormalizer.normalize(title);
+            Movie movie = resolved.get(key);
+            if (movie == null) {
+                results.add(BatchIngestResult.failed(title, failures.get(key).getMessage()));
+            } else if (created.contains(movie)) {
+                results.add(BatchIngestResult.created(title, movie.getId()));
+            } else {
+                results.add(BatchIngestResult.existing(title, movie.getId()));
+            }
+        }
+        Map<String, Movie> aliases = new HashMap<>(resolved);
+        aliases.keySet().retainAll(fetched);
+        saveAliases(aliases);
+        return results;
+    }
+
+    /**
+     * Completes the in-flight add of a batch title with its stored movie, or with the error that
+     * kept it from being stored.
+     */
+    private static void complete(CompletableFuture<Movie> flight, Movie movie, Throwable failure) {
+        if (movie != null) {
+            flight.complete(movie);
+        } else {
+            flight.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Saves refetched stored movies one by one, so a conflict or error on one row does not fail
+     * the others or the batch.
+     *
+     * @param movies the movies to save, each with the stored ID and version
+     * @return the error message of every movie that could not be saved
+     */
+    private Map<Movie, String> saveUpdates(Collection<Movie> movies) {
+        Map<Movie, String> failed = new IdentityHashMap<>();
+        for (Movie movie : movies) {
+            try {
+                repository.save(movie);
+            } catch (OptimisticLockingFailureException e) {
+                failed.put(movie, "Movie was changed while it was being fetched");
+            } catch (DataAccessException e) {
+                failed.put(movie, "Failed to store movie");
+            }
+            movieCache.evict(movie.getId());
+        }
+        return failed;
+    }
+
+    /**
+     * Looks up an already stored movie for the requested title, if reuse of stored movies is enabled.
+     * <p>
+     * Titles are first looked up as {@link MovieAlias aliases}, so a title that was added before finds
+     * the movie OMDb resolved it to (e.g. {@code "matrix"} finds {@code "The Matrix"}, 1999), even if
+     * several stored movies share a title. A title that was never requested falls back to the stored
+     * titles; since a request carries no year, that picks the oldest movie with the title.
+     *
+     * @param title the requested title
+     * @return the stored movie, if any
+     */
+    private Optional<Movie> findStored(String title) {
+        if (!reuseExisting) {
+            return Optional.empty();
+        }
+        String alias = TitleNormalizer.normalize(title);
+        return repository.findByAlias(alias).or(() -> repository.findFirstByNormalizedTitleOrderByIdAsc(alias));
+    }
+
+    /**
+     * Remembers which movie each requested title was resolved to, for {@link #findStored(String)}.
+     * Failing to store an alias only means the title is fetched again when it is added next time.
+     *
+     * @param aliases the stored movie of every fetched title, by normalized title
+     */
+    private void saveAliases(Map<String, Movie> aliases) {
+        List<MovieAlias> entities = aliases.entrySet().stream()
+                .map(entry -> new MovieAlias(entry.getKey(), entry.getValue()))
+                .toList();
+        if (entities.isEmpty()) {
+            return;
+        }
+        try {
+            aliasRepository.saveAll(entities);
+        } catch (DataAccessException e) {
+            // Keep the stored movies; the aliases only save upstream calls
+            log.warn("Could not store title aliases {}: {}", aliases.keySet(), e.getMessage());
+        }
+    }
+
+    /**
+     * Prepares a freshly fetched movie for saving. If a movie with the same natural key is
+     * already stored, the fetched data replaces it, keeping the stored ID, watched flag and rating.
+     * The stored version is kept too, so saving fails if the movie was changed in the meantime.
+     * A movie fetched without its TMDb data keeps the stored TMDb fields until it is enriched.
+     *
+     * @param fetched the movie built from the external APIs
+     * @return the movie to save, with the stored ID if one exists
+     */
+    private Movie mergeWithStored(Movie fetched) {
+        fetched.normalizeTitle();
+        repository.findByNormalizedTitleAndYear(fetched.getNormalizedTitle(), fetched.getYear())
+                .ifPresent(stored -> {
+                    fetched.setId(stored.getId());
+                    fetched.setVersion(stored.getVersion());
+                    fetched.setWatched(stored.isWatched());
+                    fetched.setRating(stored.getRating());
+                    if (fetched.getEnrichmentStatus() == Movie.EnrichmentStatus.PENDING) {
+                        fetched.setKeywords(stored.getKeywords());
+                        fetched.setSimilarMovies(stored.getSimilarMovies());
+                        fetched.setWatchProviders(stored.getWatchProviders());
+                        fetched.setImagePath1(stored.getImagePath1());
+                        fetched.setImagePath2(stored.getImagePath2());
+                        fetched.setImagePath3(stored.getImagePath3());
+                    }
+                });
+        return fetched;
+    }
+
+    /**
+     * Returns the natural key of a movie: its normalized title and release year.
+     *
+     * @param movie the movie
+     * @return the natural key
+     */
+    private String naturalKey(Movie movie) {
+        return movie.getNormalizedTitle() + "|" + movie.getYear();
+    }
+
+    /**
+     * Stores the movies with one JDBC batch insert. If the batch fails, falls back to saving
+     * the movies one by one, so a single bad row does not fail the others. A movie whose natural key
+     * was stored by another request in the meantime is not stored again; the stored movie is put
+     * into {@code duplicates} instead.
+     *
+     * @param movies     the movies to store
+     * @param duplicates receives the already stored movie of every duplicate, by the movie to store
+     * @return the movies that were stored
+     */
+    private List<Movie> saveAll(List<Movie> movies, Map<Movie, Movie> duplicates) {
+        try {
+            return repository.insertAll(movies);
+        } catch (DataAccessException | IllegalStateException e) {
+            List<Movie> saved = new ArrayList<>();
+            for (Movie movie : movies) {
+                try {
+                    movie.setId(null);
+                    saved.add(repository.save(movie));
+                } catch (DataIntegrityViolationException ex) {
+                    movie.setId(null);
+                    repository.findByNormalizedTitleAndYear(movie.getNormalizedTitle(), movie.getYear())
+                            .ifPresent(stored -> duplicates.put(movie, stored));
+                } catch (DataAccessException ex) {
+                    movie.setId(null);
+                }
+            }
+            return saved;
+        }
     }
 
     /**
-     * Retrieves a movie by its ID.
+     * Retrieves a movie by its ID, from the {@link MovieCache} if possible.
      *
      * @param id the ID of the movie
      * @return an {@link Optional} containing the movie if found
      */
     public Optional<Movie> getMovieById(Long id) {
-        return repository.findById(id);
+        return movieCache.get(id, repository::findById);
+    }
+
+    /**
+     * Retrieves the encoded JSON response of a movie, serializing it only after it changed.
+     *
+     * @param id the ID of the movie
+     * @return an {@link Optional} containing the encoded movie if found
+     */
+    public Optional<MovieCache.EncodedMovie> getMovieJson(Long id) {
+        return movieCache.getEncoded(id, repository::findById, this::encode);
+    }
+
+    /**
+     * Retrieves many movies by their IDs with a single {@code IN} query.
+     *
+     * @param ids the IDs of the movies; duplicates are ignored
+     * @return the stored movies, in the order of their first requested ID; unknown IDs are left out
+     * @throws IllegalArgumentException if no IDs or more than the configured maximum are given
+     */
+    public List<Movie> getMoviesByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        checkBulkSize(requested.size(), "IDs");
+
+        Map<Long, Movie> found = new HashMap<>();
+        for (Movie movie : repository.findAllById(requested)) {
+            found.put(movie.getId(), movie);
+        }
+        return requested.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Applies many watched and rating changes with one JDBC batch in a single transaction.
+     * Changes whose movie does not exist or has another version than the given one are reported
+     * instead of failing the whole request.
+     *
+     * @param changes the changes to apply, in order
+     * @return the number of applied changes and the IDs of the changes that were not applied
+     * @throws IllegalArgumentException if no changes or more than the configured maximum are given,
+     *                                  or a change has no ID or nothing to change
+     */
+    public BulkUpdateResponse updateMovies(List<MovieChange> changes) {
+        checkBulkSize(changes.size(), "changes");
+        for (MovieChange change : changes) {
+            if (change == null || change.id() == null || (change.watched() == null && change.rating() == null)) {
+                throw new IllegalArgumentException("Every change needs an id and a watched or rating value: " + change);
+            }
+        }
+
+        int[] updatedRows = repository.updateAll(changes);
+        movieCache.evictAll(changes.stream().map(MovieChange::id).toList());
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < changes.size(); i++) {
+            if (updatedRows[i] == 0) {
+                missed.add(changes.get(i).id());
+            }
+        }
+        // Only changes that missed their row need a second query, to tell unknown IDs from version conflicts
+        Set<Long> existing = missed.isEmpty() ? Set.of() : new HashSet<>(repository.findExistingIds(missed));
+
+        List<Long> notFound = new ArrayList<>();
+        List<Long> conflicts = new ArrayList<>();
+        for (Long id : missed) {
+            (existing.contains(id) ? conflicts : notFound).add(id);
+        }
+        return new BulkUpdateResponse(changes.size() - missed.size(), notFound, conflicts);
     }
 
     /**
-     * Retrieves all movies using pagination.
+     * Checks that a multi-get or bulk update request is neither empty nor too large.
+     *
+     * @param size the number of requested items
+     * @param what what the items are, for the error message
+     * @throws IllegalArgumentException if the size is 0 or above the configured maximum
+     */
+    private void checkBulkSize(int size, String what) {
+        if (size == 0) {
+            throw new IllegalArgumentException("No " + what + " provided");
+        }
+        if (size > maxBulkSize) {
+            throw new IllegalArgumentException("Too many " + what + ": " + size + " (maximum is " + maxBulkSize + ")");
+        }
+    }
+
+    /**
+     * Retrieves all movies using pagination, as summaries or with only the requested fields.
+     * <p>
+     * Summaries and field selections are read as columns from the database without loading entities.
      *
      * @param pageable the pagination and sorting information
-     * @return a paginated {@link Page} of movies
+     * @param fields   {@value #SUMMARY_FIELDS} for {@link MovieSummary} objects, the names of the fields to return,
+     *                 or {@code null} or empty for complete movies
+     * @return a paginated {@link Page} of movies, summaries or field maps
+     * @throws IllegalArgumentException if a field does not exist
      */
-    public Page<Movie> getAllMovies(Pageable pageable) {
-        return repository.findAll(pageable);
+    public Page<?> getAllMovies(Pageable pageable, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return repository.findAll(pageable);
+        }
+        if (isSummary(fields)) {
+            return repository.findAllSummaries(pageable);
+        }
+        return repository.findAllFields(fields, pageable);
     }
 
     /**
-     * Updates the "watched" status of a movie.
+     * Retrieves the movies following a cursor, using keyset pagination.
+     * <p>
+     * Every slice is read with an index seek on the movie ID, so its cost does not grow with how
+     * far the client has paged, and no total count is computed.
      *
-     * @param id the ID of the movie
+     * @param after  the {@code after} token of the previous slice, or an empty string for the first slice
+     * @param size   the maximum number of movies to return
+     * @param fields {@value #SUMMARY_FIELDS} for {@link MovieSummary} objects, the names of the fields to return,
+     *               or {@code null} or empty for complete movies
+     * @return the slice of movies, summaries or field maps with the token for the next one
+     * @throws IllegalArgumentException if the token is invalid, the size is out of range or a field does not exist
+     */
+    public MovieSlice<?> getMoviesAfter(String after, int size, List<String> fields) {
+        if (size < 1 || size > maxSliceSize) {
+            throw new IllegalArgumentException("Invalid size: " + size + " (must be between 1 and " + maxSliceSize + ")");
+        }
+        Long lastId = KeysetCursor.decode(after);
+        Pageable firstPage = PageRequest.of(0, size);
+
+        if (fields == null || fields.isEmpty()) {
+            return toMovieSlice(repository.findByIdGreaterThanOrderByIdAsc(lastId, firstPage), size, Movie::getId);
+        }
+        if (isSummary(fields)) {
+            return toMovieSlice(repository.findSummariesByIdGreaterThan(lastId, firstPage), size, MovieSummary::id);
+        }
+        return toMovieSlice(repository.findFieldsByIdGreaterThan(fields, lastId, firstPage), size,
+                row -> (Long) row.get("id"));
+    }
+
+    /**
+     * Checks whether the requested fields ask for the summary projection.
+     *
+     * @param fields the requested fields
+     * @return {@code true} if the only requested field is {@value #SUMMARY_FIELDS}
+     */
+    private static boolean isSummary(List<String> fields) {
+        return fields.size() == 1 && SUMMARY_FIELDS.equals(fields.get(0).trim());
+    }
+
+    /**
+     * Wraps a slice in a {@link MovieSlice} with the token for the next slice.
+     *
+     * @param slice the slice read from the repository
+     * @param size  the requested slice size
+     * @param idOf  extracts the movie ID of an element
+     * @param <T>   the representation of a movie
+     * @return the movie slice
+     */
+    private static <T> MovieSlice<T> toMovieSlice(Slice<T> slice, int size, Function<T, Long> idOf) {
+        List<T> content = slice.getContent();
+        String next = slice.hasNext() ? KeysetCursor.encode(idOf.apply(content.get(content.size() - 1))) : null;
+        return new MovieSlice<>(content, size, slice.hasNext(), next);
+    }
+
+    /**
+     * Updates the "watched" status of a movie with a single UPDATE statement.
+     *
+     * @param id      the ID of the movie
      * @param watched the new watched status
-     * @return an {@link Optional} containing the updated movie if found
+     * @param version the version the client last read, or {@code null} to update regardless
+     * @return an {@link Optional} containing the update, or empty if the movie does not exist
+     * @throws ObjectOptimisticLockingFailureException if the movie exists but has another version
      */
-    public Optional<Movie> updateWatched(Long id, boolean watched) {
-        return repository.findById(id).map(movie -> {
-            movie.setWatched(watched);
-            return repository.save(movie);
-        });
+    public Optional<MovieUpdate> updateWatched(Long id, boolean watched, Long version) {
+        Optional<Long> newVersion = repository.updateWatchedReturningVersion(id, watched, version);
+        movieCache.evict(id);
+        return isUpdated(newVersion, id, version) ? Optional.of(MovieUpdate.watched(id, watched, newVersion.get())) : Optional.empty();
     }
 
     /**
-     * Updates the rating of a movie.
+     * Updates the rating of a movie with a single UPDATE statement.
      *
-     * @param id the ID of the movie
-     * @param rating the new rating to assign
-     * @return an {@link Optional} containing the updated movie if found
+     * @param id      the ID of the movie
+     * @param rating  the new rating to assign
+     * @param version the version the client last read, or {@code null} to update regardless
+     * @return an {@link Optional} containing the update, or empty if the movie does not exist
+     * @throws ObjectOptimisticLockingFailureException if the movie exists but has another version
      */
-    public Optional<Movie> updateRating(Long id, int rating) {
-        return repository.findById(id).map(movie -> {
-            movie.setRating(rating);
-            return repository.save(movie);
-        });
+    public Optional<MovieUpdate> updateRating(Long id, int rating, Long version) {
+        Optional<Long> newVersion = repository.updateRatingReturningVersion(id, rating, version);
+        movieCache.evict(id);
+        return isUpdated(newVersion, id, version) ? Optional.of(MovieUpdate.rating(id, rating, newVersion.get())) : Optional.empty();
+    }
+
+    /**
+     * Encodes a movie's JSON response with the same mapper used for all other responses.
+     *
+     * @param movie the movie to encode
+     * @return the encoded movie
+     */
+    private MovieCache.EncodedMovie encode(Movie movie) {
+        try {
+            return MovieCache.EncodedMovie.of(objectMapper.writeValueAsBytes(movie), gzipMinSize);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize movie " + movie.getId(), e);
+        }
+    }
+
+    /**
+     * Interprets the outcome of a single-statement update.
+     *
+     * @param newVersion the new version of the movie, or empty if no row was updated
+     * @param id         the ID of the movie
+     * @param version    the expected version of the update, or {@code null}
+     * @return {@code true} if the movie was updated, {@code false} if it does not exist
+     * @throws ObjectOptimisticLockingFailureException if the movie exists but has another version
+     */
+    private boolean isUpdated(Optional<Long> newVersion, Long id, Long version) {
+        if (newVersion.isPresent()) {
+            return true;
+        }
+        // Only a versioned update can miss an existing row; plain updates need no second query
+        if (version != null && repository.existsById(id)) {
+            throw new ObjectOptimisticLockingFailureException(Movie.class, id);
+        }
+        return false;
     }
 
     /**
@@ -91,5 +699,12 @@ public class MovieService {
      */
     public void deleteMovie(Long id) {
         repository.deleteById(id);
+        movieCache.evict(id);
+    }
+
+    /**
+     * An in-flight add registered by a batch ingest, completed only once the whole batch is stored.
+     */
+    private static final class BatchFlight extends CompletableFuture<Movie> {
     }
-}
\ No newline at end of file
+}
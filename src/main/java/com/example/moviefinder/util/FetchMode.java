@@ -0,0 +1,23 @@
+package com.example.moviefinder.util;
+
+/**
+ * How {@link OmdbClient} and {@link TmdbClient} obtain a response.
+ */
+enum FetchMode {
+
+    /**
+     * A user request: served from the caches if possible, otherwise fetched with priority,
+     * falling back to an expired cached response while the API is unavailable.
+     */
+    INTERACTIVE,
+
+    /**
+     * A background refresh: always fetched, but only with the rate limiter's spare capacity.
+     */
+    BACKGROUND,
+
+    /**
+     * A rebuild: served only from the caches, regardless of age; the API is never called.
+     */
+    STORED_ONLY
+}
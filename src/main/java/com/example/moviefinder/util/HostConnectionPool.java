@@ -0,0 +1,179 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.ConnectionPoolTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that limits the number of concurrent requests per upstream host.
+ * <p>
+ * Each host gets its own pool of {@code maxPerHost} permits. A request holds a permit until its response
+ * is closed, so the permits correspond to the connections in use. A request that cannot get a permit
+ * within {@code acquireTimeout} fails with a {@link ConnectionPoolTimeoutException} instead of queueing
+ * indefinitely behind a stalled upstream.
+ */
+public class HostConnectionPool implements ClientHttpRequestInterceptor {
+
+    private final int maxPerHost;
+    private final Duration acquireTimeout;
+    private final Map<String, HostPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a pool allowing {@code maxPerHost} concurrent requests per host.
+     *
+     * @param maxPerHost     maximum number of concurrent requests per host
+     * @param acquireTimeout maximum time to wait for a free permit
+     */
+    public HostConnectionPool(int maxPerHost, Duration acquireTimeout) {
+        if (maxPerHost <= 0) {
+            throw new IllegalArgumentException("maxPerHost must be positive");
+        }
+        this.maxPerHost = maxPerHost;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Executes the request while holding a permit of the request's host.
+     *
+     * @param request   the request
+     * @param body      the request body
+     * @param execution the remaining interceptor chain
+     * @return the response, which releases the permit when closed
+     * @throws IOException                    if the request fails
+     * @throws ConnectionPoolTimeoutException if no permit becomes available in time
+     */
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost();
+        HostPool pool = pools.computeIfAbsent(host, h -> new HostPool(maxPerHost));
+        pool.acquire(host, acquireTimeout);
+
+        try {
+            return new PooledResponse(execution.execute(request, body), pool);
+        } catch (IOException | RuntimeException e) {
+            pool.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool counters of every host contacted so far.
+     *
+     * @return a map of host name to its in-use, waiting, acquired and timed-out counters
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        pools.forEach((host, pool) -> stats.put(host, pool.stats()));
+        return stats;
+    }
+
+    /**
+     * Permits and counters of a single host.
+     */
+    private static final class HostPool {
+
+        private final int maxConnections;
+        private final Semaphore permits;
+        private final AtomicLong waiting = new AtomicLong();
+        private final AtomicLong acquired = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        HostPool(int maxConnections) {
+            this.maxConnections = maxConnections;
+            this.permits = new Semaphore(maxConnections, true);
+        }
+
+        void acquire(String host, Duration timeout) {
+            waiting.incrementAndGet();
+            try {
+                if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                    timeouts.incrementAndGet();
+                    throw new ConnectionPoolTimeoutException("Timed out after " + timeout + " waiting for a connection to " + host);
+                }
+                acquired.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionPoolTimeoutException("Interrupted while waiting for a connection to " + host);
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("maxConnections", maxConnections);
+            stats.put("inUse", maxConnections - permits.availablePermits());
+            stats.put("waiting", waiting.get());
+            stats.put("acquired", acquired.get());
+            stats.put("timeouts", timeouts.get());
+            return stats;
+        }
+    }
+
+    /**
+     * Response wrapper that returns the host permit once the response is closed.
+     */
+    private static final class PooledResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final HostPool pool;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PooledResponse(ClientHttpResponse delegate, HostPool pool) {
+            this.delegate = delegate;
+            this.pool = pool;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    pool.release();
+                }
+            }
+        }
+    }
+}
@@ -1,76 +1,218 @@
 package com.example.moviefinder.util;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.example.moviefinder.exceptions.MovieDataFetchException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.URL;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.*;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.IntStream;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Utility class responsible for downloading images from TMDb using the
- * image file paths provided in a JSON response.
+ * image file paths provided in a TMDb response.
+ * <p>
+ * Images are downloaded concurrently over a shared, connection-pooling {@link HttpClient},
+ * streamed straight to disk and handed to the {@link ImageStore}. Images that were already
+ * downloaded from the same TMDb file path are not downloaded again. Smaller variants of each new
+ * image are generated in the background by the {@link ThumbnailGenerator}. Downloads count
+ * towards the TMDb quota and are paced by the shared TMDb {@link RateLimiter}; they wait for their
+ * token asynchronously, so the downloads of a movie queue up concurrently instead of one after another.
+ * In offline mode, only images that are already stored are returned.
  */
 @Component
 public class ImageDownloader {
 
+    private static final Logger log = LoggerFactory.getLogger(ImageDownloader.class);
+
+    private final ImageStore imageStore;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final RateLimiter rateLimiter;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final boolean offline;
+
+    /**
+     * Constructs the ImageDownloader with the image store and the configured timeouts.
+     *
+     * @param imageStore         store the downloaded images are saved in
+     * @param thumbnailGenerator generator of the smaller variants of downloaded images
+     * @param rateLimiter        rate limiter shared with the TMDb API calls
+     * @param connectTimeout     maximum time to establish a connection to the image server
+     * @param readTimeout        maximum time to wait for an image response
+     * @param offline            whether images may only be taken from the store, see {@link RawResponseStore}
+     */
+    @Autowired
+    public ImageDownloader(ImageStore imageStore,
+                           ThumbnailGenerator thumbnailGenerator,
+                           @Qualifier("tmdbRateLimiter") RateLimiter rateLimiter,
+                           @Value("${moviefinder.images.connect-timeout:PT5S}") Duration connectTimeout,
+                           @Value("${moviefinder.images.read-timeout:PT20S}") Duration readTimeout,
+                           @Value("${moviefinder.offline:false}") boolean offline) {
+        this(imageStore, thumbnailGenerator, rateLimiter,
+                HttpClient.newBuilder()
+                        .connectTimeout(connectTimeout)
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .build(),
+                readTimeout, offline);
+    }
+
+    /**
+     * Constructs the ImageDownloader with the given HTTP client.
+     *
+     * @param imageStore         store the downloaded images are saved in
+     * @param thumbnailGenerator generator of the smaller variants of downloaded images
+     * @param rateLimiter        rate limiter shared with the TMDb API calls
+     * @param httpClient         client the images are downloaded with
+     * @param readTimeout        maximum time to wait for an image response
+     * @param offline            whether images may only be taken from the store
+     */
+    ImageDownloader(ImageStore imageStore, ThumbnailGenerator thumbnailGenerator, RateLimiter rateLimiter,
+                    HttpClient httpClient, Duration readTimeout, boolean offline) {
+        this.imageStore = imageStore;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.rateLimiter = rateLimiter;
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+        this.offline = offline;
+    }
+
     /**
-     * Downloads up to three images from the provided TMDb image data and stores them
-     * in a local folder named after the movie title.
+     * Downloads up to three images from the provided TMDb backdrop file paths and saves them
+     * in the {@link ImageStore}.
      *
-     * @param imageData JSON object containing an array of "backdrops" from TMDb
-     * @param title     the title of the movie (used to name the folder)
-     * @return a list of relative paths where the images were saved
+     * @param backdropPaths TMDb file paths of the backdrops (e.g. {@code /abc.jpg})
+     * @param title         the title of the movie (used in log messages)
+     * @return a list of store keys of the saved images
+     * @throws MovieDataFetchException if the calling thread is interrupted; the requests still in flight are aborted
      */
-    public List<String> downloadImages(JSONObject imageData, String title) {
-        JSONArray backdrops = imageData.optJSONArray("backdrops");
-        if (backdrops == null || backdrops.isEmpty()) return List.of();
+    public List<String> downloadImages(List<String> backdropPaths, String title) {
+        if (backdropPaths.isEmpty()) return List.of();
 
-        String safeTitle = title.replaceAll("[\\/:*?\"<>|]", "_");
-        Path folderPath = Paths.get(safeTitle);
-        List<String> imagePaths = new ArrayList<>();
+        // Download up to 3 images concurrently
+        List<CompletableFuture<?>> requests = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Optional<String>>> downloads = backdropPaths.stream()
+                .filter(path -> !path.isEmpty())
+                .limit(3)
+                .map(filePath -> download(filePath, title, requests))
+                .toList();
 
         try {
-            Files.createDirectories(folderPath);
-
-            // Download up to 3 images
-            IntStream.range(0, Math.min(3, backdrops.length()))
-                    .mapToObj(i -> backdrops.getJSONObject(i).optString("file_path"))
-                    .filter(path -> !path.isEmpty())
-                    .forEach(filePath -> {
-                        try {
-                            Path outputPath = folderPath.resolve(filePath.replace("/", "_"));
-                            URI uri = new URI("https", "image.tmdb.org", "/t/p/w780" + filePath, null);
-                            downloadToFile(uri.toURL(), outputPath);
-                            imagePaths.add(outputPath.toString());
-                        } catch (Exception e) {
-                            System.err.println("⚠ Failed to download image: " + e.getMessage());
-                        }
-                    });
-
-        } catch (IOException e) {
-            System.err.println("⚠ Failed to create image directory: " + e.getMessage());
+            CompletableFuture.allOf(downloads.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            // Cancelling aborts the requests and the waits for rate limit tokens; the downloads then delete their .part files
+            synchronized (requests) {
+                requests.forEach(request -> request.cancel(true));
+            }
+            Thread.currentThread().interrupt();
+            throw new MovieDataFetchException("Image download for " + title + " was interrupted", e);
+        } catch (ExecutionException e) {
+            // Not reached: failed downloads complete with an empty result
         }
 
-        return imagePaths;
+        return downloads.stream()
+                .map(CompletableFuture::join)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     /**
-     * Downloads the content from the given URL and writes it to the specified file.
+     * Downloads the {@code w780} variant of a TMDb image into a temporary file and saves it in the store.
      *
-     * @param url        the source URL of the image
-     * @param outputPath the path where the image should be saved
-     * @throws IOException if the download or write operation fails
+     * @param filePath the TMDb image file path (e.g. {@code /abc.jpg})
+     * @param title    the title of the movie (used in log messages)
+     * @param requests collects the HTTP client's futures, so the requests can be aborted
+     * @return a future with the store key, or an empty optional if the download failed
      */
-    private void downloadToFile(URL url, Path outputPath) throws IOException {
-        try (InputStream in = new BufferedInputStream(url.openStream());
-             OutputStream out = new FileOutputStream(outputPath.toFile())) {
-            in.transferTo(out); // Java 9+ simplifies stream copying
+    private CompletableFuture<Optional<String>> download(String filePath, String title,
+                                                         List<CompletableFuture<?>> requests) {
+        Optional<String> known = imageStore.findBySource(filePath);
+        if (known.isPresent()) {
+            return CompletableFuture.completedFuture(known);
         }
+        if (offline) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        URI uri;
+        Path partPath;
+        try {
+            uri = new URI("https", "image.tmdb.org", "/t/p/w780" + filePath, null);
+            partPath = imageStore.createTempFile();
+        } catch (URISyntaxException | IOException e) {
+            log.warn("Failed to download image for {}: {}", title, e.getMessage());
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(readTimeout).GET().build();
+        CompletableFuture<Void> token = rateLimiter.acquireAsync();
+        requests.add(token);
+
+        return token
+                .thenCompose(ignored -> {
+                    CompletableFuture<HttpResponse<Path>> sent =
+                            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofFile(partPath));
+                    requests.add(sent);
+                    return sent;
+                })
+                .thenApply(response -> {
+                    if (response.statusCode() == 429) {
+                        rateLimiter.onThrottled(RateLimiter.parseRetryAfter(
+                                response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null)));
+                    } else if (response.statusCode() == 200) {
+                        rateLimiter.onSuccess();
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("HTTP " + response.statusCode() + " for " + uri);
+                    }
+                    try {
+                        String key = imageStore.store(partPath, extensionOf(filePath), filePath);
+                        thumbnailGenerator.scheduleVariants(key);
+                        return Optional.of(key);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.warn("Failed to download image for {}: {}", title, cause.getMessage());
+                    try {
+                        Files.deleteIfExists(partPath);
+                    } catch (IOException ignored) {
+                        // Nothing left to clean up
+                    }
+                    return Optional.empty();
+                });
+    }
+
+    /**
+     * Returns the lower-cased extension of a TMDb file path, defaulting to {@code .jpg}.
+     *
+     * @param filePath the TMDb image file path
+     * @return the extension including the dot
+     */
+    private String extensionOf(String filePath) {
+        int dot = filePath.lastIndexOf('.');
+        String extension = dot >= 0 ? filePath.substring(dot).toLowerCase(Locale.ROOT) : "";
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : ".jpg";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,498 @@
+package com.example.moviefinder.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed on-disk store for downloaded images.
+ * <p>
+ * Every image is stored once under a key derived from the SHA-256 hash of its content
+ * (e.g. {@code 3f9a...c1.jpg}), so the same backdrop shared by several movies takes space only once.
+ * Keys are stable and are what {@link com.example.moviefinder.model.Movie} stores in its image columns.
+ * Derived variants of an image (e.g. thumbnails) are stored under the original's hash plus a
+ * variant suffix (e.g. {@code 3f9a...c1_thumb.jpg}).
+ * <p>
+ * The store tracks the total size of its files and, once the configured quota is exceeded,
+ * evicts the least recently used images. Last use is kept in memory and persisted coarsely through
+ * the files' modification time, so the order survives restarts. The store's lock only guards the
+ * in-memory index: files are moved into place before it is taken, and evicted files, modification
+ * times and the source index are written after it is released.
+ * <p>
+ * Which source (e.g. TMDb file path) each image was downloaded from is appended to a small index
+ * file in the root directory, so {@link #findBySource(String)} also finds images stored before a
+ * restart and they are not downloaded again. The index is compacted when the store is opened.
+ */
+@Component
+public class ImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageStore.class);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}(_[a-z0-9]+)?\\.[a-z0-9]{1,5}");
+    private static final Duration TOUCH_PERSIST_INTERVAL = Duration.ofHours(1);
+    private static final String TEMP_DIR = "tmp";
+    private static final String SOURCE_INDEX = "sources.tsv";
+
+    private final Path root;
+    private final Path tempDir;
+    private final Path sourceIndex;
+    private final long maxBytes;
+
+    /**
+     * Stored images in least-recently-used order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Source identifiers (e.g. TMDb file paths) mapped to the key of the image downloaded from them.
+     */
+    private final Map<String, String> sources = new HashMap<>();
+
+    /**
+     * Keys of stored images mapped to the sources they were downloaded from; the reverse of {@link #sources}.
+     */
+    private final Map<String, Set<String>> sourcesByKey = new HashMap<>();
+
+    /**
+     * Keys of evicted images whose files are still being deleted.
+     */
+    private final Set<String> deleting = new HashSet<>();
+
+    private long totalBytes;
+    private long evictions;
+
+    /**
+     * Creates the store, creating the root directory if needed and indexing the images already in it.
+     *
+     * @param root     directory holding the images
+     * @param maxBytes maximum total size of the stored images
+     * @throws UncheckedIOException if the directory cannot be created or read
+     */
+    public ImageStore(@Value("${moviefinder.images.store-root:./image-store}") Path root,
+                      @Value("${moviefinder.images.store-max-size:1GB}") DataSize maxBytes) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tempDir = this.root.resolve(TEMP_DIR);
+        this.sourceIndex = this.root.resolve(SOURCE_INDEX);
+        this.maxBytes = maxBytes.toBytes();
+        try {
+            Files.createDirectories(tempDir);
+            cleanTempDir();
+            indexExistingImages();
+            loadSources();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize image store at " + this.root, e);
+        }
+    }
+
+    /**
+     * Creates a new, empty temporary file inside the store to download an image into.
+     *
+     * @return the path of the temporary file
+     * @throws IOException if the file cannot be created
+     */
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(tempDir, "image-", ".part");
+    }
+
+    /**
+     * Moves a downloaded file into the store under its content hash. If an image with the same
+     * content is already stored, the file is discarded and the existing key is returned.
+     *
+     * @param file      the downloaded file; it is moved or deleted by this call
+     * @param extension the file extension including the dot (e.g. {@code .jpg})
+     * @param source    identifier of where the image came from, used by {@link #findBySource(String)}
+     * @return the store key of the image
+     * @throws IOException if the file cannot be read or moved
+     */
+    public String store(Path file, String extension, String source) throws IOException {
+        String key = sha256(file) + extension.toLowerCase(Locale.ROOT);
+        Path target = pathFor(key);
+
+        // The file is only moved into place if the image is not stored yet; -1 until then
+        long size = -1;
+        boolean newSource;
+        List<String> evicted;
+        while (true) {
+            synchronized (this) {
+                awaitDeletion(key);
+                if (size >= 0 && !entries.containsKey(key)) {
+                    entries.put(key, new Entry(size, System.currentTimeMillis()));
+                    totalBytes += size;
+                }
+                if (entries.containsKey(key)) {
+                    entries.get(key); // mark as most recently used
+                    newSource = source != null && addSource(source, key);
+                    evicted = evictIfNeeded(key);
+                    break;
+                }
+            }
+            size = Files.size(file);
+            Files.createDirectories(target.getParent());
+            // Same content under the same key, so a concurrent store of the same image is harmless
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (size < 0) {
+            Files.deleteIfExists(file);
+        }
+        if (newSource) {
+            appendSource(source, key);
+        }
+        delete(evicted);
+        return key;
+    }
+
+    /**
+     * Moves a generated variant of a stored image (e.g. a thumbnail) into the store.
+     *
+     * @param originalKey the key of the image the variant was generated from
+     * @param variant     the variant name (lower-case letters and digits)
+     * @param file        the generated file; it is moved by this call
+     * @return the store key of the variant
+     * @throws IOException if the file cannot be moved
+     */
+    public String storeVariant(String originalKey, String variant, Path file) throws IOException {
+        String key = variantKey(originalKey, variant);
+        Path target = pathFor(key);
+
+        synchronized (this) {
+            awaitDeletion(key);
+        }
+        long size = Files.size(file);
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        List<String> evicted;
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(size, System.currentTimeMillis()));
+            totalBytes += size - (previous != null ? previous.size : 0);
+            evicted = evictIfNeeded(key);
+        }
+        delete(evicted);
+        return key;
+    }
+
+    /**
+     * Returns the key under which a variant of a stored image is (or would be) kept.
+     * Variants are always JPEG files.
+     *
+     * @param originalKey the key of the original image
+     * @param variant     the variant name
+     * @return the variant key
+     */
+    public String variantKey(String originalKey, String variant) {
+        return originalKey.substring(0, originalKey.indexOf('.')) + "_" + variant + ".jpg";
+    }
+
+    /**
+     * Returns the key of the image previously stored from the given source, if it is still stored.
+     *
+     * @param source identifier of where the image came from (e.g. a TMDb file path)
+     * @return the store key, if known
+     */
+    public Optional<String> findBySource(String source) {
+        String key;
+        boolean persistUse;
+        synchronized (this) {
+            key = sources.get(source);
+            if (key == null || !entries.containsKey(key)) {
+                return Optional.empty();
+            }
+            persistUse = touch(key);
+        }
+        if (persistUse) {
+            persistUse(key);
+        }
+        return Optional.of(key);
+    }
+
+    /**
+     * Resolves a store key to the file holding the image and marks the image as recently used.
+     *
+     * @param key the store key
+     * @return the image file, or empty if the key is invalid or the image is not (or no longer) stored
+     */
+    public Optional<Path> resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        boolean persistUse;
+        synchronized (this) {
+            if (!entries.containsKey(key)) {
+                return Optional.empty();
+            }
+            persistUse = touch(key);
+        }
+        if (persistUse) {
+            persistUse(key);
+        }
+        return Optional.of(pathFor(key));
+    }
+
+    /**
+     * Returns a snapshot of the store's size and eviction counters.
+     *
+     * @return a map with image count, total bytes, quota and evictions
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("images", entries.size());
+        stats.put("totalBytes", totalBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    /**
+     * Marks an image as recently used. Must be called with the store's lock held.
+     *
+     * @return {@code true} if the last use was persisted more than {@link #TOUCH_PERSIST_INTERVAL} ago
+     *         and should be persisted again with {@link #persistUse(String)}
+     */
+    private boolean touch(String key) {
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (now - entry.usePersistedAt < TOUCH_PERSIST_INTERVAL.toMillis()) {
+            return false;
+        }
+        entry.usePersistedAt = now;
+        return true;
+    }
+
+    /**
+     * Persists the last use of an image in its file's modification time. Called without the lock,
+     * so lookups of other images never wait for file system I/O.
+     */
+    private void persistUse(String key) {
+        try {
+            Files.setLastModifiedTime(pathFor(key), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects the eviction order after a restart, e.g. if the image was evicted meanwhile
+        }
+    }
+
+    /**
+     * Removes least recently used images from the index until the total size is within the quota.
+     * The image that was just stored is never evicted. Must be called with the store's lock held;
+     * the returned files are deleted afterwards with {@link #delete(List)}, outside the lock.
+     *
+     * @return the keys of the evicted images
+     */
+    private List<String> evictIfNeeded(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            String evictedKey = eldest.getKey();
+            totalBytes -= eldest.getValue().size;
+            evictions++;
+            iterator.remove();
+            Set<String> evictedSources = sourcesByKey.remove(evictedKey);
+            if (evictedSources != null) {
+                evictedSources.forEach(sources::remove);
+            }
+            deleting.add(evictedKey);
+            evicted.add(evictedKey);
+        }
+        return evicted;
+    }
+
+    /**
+     * Deletes the files of evicted images. Called without the lock; a file that cannot be deleted
+     * is no longer counted against the quota and is indexed again after a restart.
+     */
+    private void delete(List<String> evicted) {
+        if (evicted.isEmpty()) {
+            return;
+        }
+        for (String key : evicted) {
+            try {
+                Files.deleteIfExists(pathFor(key));
+            } catch (IOException e) {
+                log.warn("Failed to evict image {}", key, e);
+            }
+        }
+        synchronized (this) {
+            evicted.forEach(deleting::remove);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until a file evicted under the given key has been deleted, so that storing the same
+     * image again is not undone by the pending deletion. Must be called with the store's lock held.
+     */
+    private void awaitDeletion(String key) throws InterruptedIOException {
+        while (deleting.contains(key)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for image " + key + " to be evicted");
+            }
+        }
+    }
+
+    /**
+     * Returns the file for a key, fanned out into sub-directories by the first two hash characters.
+     */
+    private Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /**
+     * Removes leftovers of downloads that were interrupted by a shutdown.
+     */
+    private void cleanTempDir() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Indexes the images already on disk, oldest modification time first.
+     */
+    private void indexExistingImages() throws IOException {
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            files.filter(Files::isRegularFile)
+                    .filter(path -> KEY_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .map(path -> Map.entry(path, lastModified(path)))
+                    .sorted(Map.Entry.comparingByValue())
+                    .forEach(file -> {
+                        long size = file.getKey().toFile().length();
+                        entries.put(file.getKey().getFileName().toString(), new Entry(size, file.getValue().toMillis()));
+                        totalBytes += size;
+                    });
+        }
+    }
+
+    /**
+     * Reads the source index, keeping the sources of images that are still stored,
+     * and rewrites it without the others. Later entries for a source replace earlier ones.
+     */
+    private void loadSources() throws IOException {
+        if (!Files.exists(sourceIndex)) {
+            return;
+        }
+        for (String line : Files.readAllLines(sourceIndex, StandardCharsets.UTF_8)) {
+            int tab = line.lastIndexOf('\t');
+            if (tab > 0 && entries.containsKey(line.substring(tab + 1))) {
+                addSource(line.substring(0, tab), line.substring(tab + 1));
+            }
+        }
+        Path compacted = Files.createTempFile(tempDir, "sources-", ".part");
+        Files.write(compacted, sources.entrySet().stream()
+                .map(source -> source.getKey() + "\t" + source.getValue())
+                .toList(), StandardCharsets.UTF_8);
+        Files.move(compacted, sourceIndex, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Records the source an image was downloaded from, replacing an earlier image of the same source.
+     * Must be called with the store's lock held.
+     *
+     * @return {@code true} if the source was not yet recorded for this image
+     */
+    private boolean addSource(String source, String key) {
+        String previous = sources.put(source, key);
+        if (key.equals(previous)) {
+            return false;
+        }
+        if (previous != null) {
+            Set<String> previousSources = sourcesByKey.get(previous);
+            previousSources.remove(source);
+            if (previousSources.isEmpty()) {
+                sourcesByKey.remove(previous);
+            }
+        }
+        sourcesByKey.computeIfAbsent(key, k -> new HashSet<>(2)).add(source);
+        return true;
+    }
+
+    /**
+     * Appends a source to the source index. A failure only means the image may be downloaded
+     * again after a restart.
+     */
+    private void appendSource(String source, String key) {
+        if (source.indexOf('\t') >= 0 || source.indexOf('\n') >= 0) {
+            return;
+        }
+        try {
+            Files.writeString(sourceIndex, source + "\t" + key + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Failed to record image source {}", source, e);
+        }
+    }
+
+    /**
+     * Returns a file's modification time, or the epoch if it cannot be read.
+     */
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Computes the hex-encoded SHA-256 hash of a file's content.
+     */
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * A stored image: its size and when its last use was last persisted.
+     */
+    private static final class Entry {
+
+        private final long size;
+
+        /**
+         * Guarded by the store's lock.
+         */
+        private long usePersistedAt;
+
+        private Entry(long size, long usePersistedAt) {
+            this.size = size;
+            this.usePersistedAt = usePersistedAt;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.moviefinder.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque {@code after} tokens used for keyset pagination of movies.
+ * <p>
+ * A token holds the ID of the last movie of a slice; the next slice starts after it. Clients should
+ * treat tokens as opaque strings, so the encoding can change without breaking them.
+ */
+public final class KeysetCursor {
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Encodes the ID of the last movie of a slice into a token.
+     *
+     * @param lastId the ID of the last movie returned
+     * @return the URL-safe token
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a token into the ID after which the next slice starts.
+     *
+     * @param token the token, or an empty string for the first slice
+     * @return the ID to continue after, {@code 0} for the first slice
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static long decode(String token) {
+        if (token == null || token.isBlank()) {
+            return 0;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.US_ASCII);
+            if (value.startsWith(PREFIX)) {
+                long lastId = Long.parseLong(value.substring(PREFIX.length()));
+                if (lastId >= 0) {
+                    return lastId;
+                }
+            }
+        } catch (IllegalArgumentException ignored) {
+            // Not Base64 or not a number, reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+}
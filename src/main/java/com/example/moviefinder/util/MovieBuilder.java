@@ -1,10 +1,10 @@
 package com.example.moviefinder.util;
 
 import com.example.moviefinder.model.Movie;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -17,20 +17,60 @@ import java.util.stream.IntStream;
 public class MovieBuilder {
 
     /**
-     * Constructs a {@link Movie} object using information from OMDb and TMDb.
+     * Constructs a {@link Movie} object from OMDb data and the details extracted from a combined
+     * TMDb response, as returned by {@link TmdbClient#fetchCombinedDetails(int)}.
      *
-     * @param omdbData        JSON object containing data from the OMDb API
-     * @param tmdbSearchResult JSON object for the initial TMDb search result
-     * @param images          JSON object containing TMDb image data
-     * @param keywords        JSON object containing TMDb keywords
-     * @param similar         JSON object containing TMDb similar movies
-     * @param providers       JSON object containing TMDb watch providers
-     * @param imagePaths      List of local paths where images were saved
+     * @param omdbData    JSON object containing data from the OMDb API
+     * @param tmdbDetails backdrops, keywords, similar movies and watch providers from TMDb
+     * @param imagePaths  List of local paths where images were saved
      * @return A fully built {@link Movie} instance
      */
-    public Movie buildMovie(JSONObject omdbData, JSONObject tmdbSearchResult, JSONObject images,
-                            JSONObject keywords, JSONObject similar, JSONObject providers, List<String> imagePaths) {
+    public Movie buildMovie(JSONObject omdbData, TmdbDetails tmdbDetails, List<String> imagePaths) {
+        return omdbMovie(omdbData, imagePaths)
+                .keywords(joinFirst(tmdbDetails.keywords()))
+                .similarMovies(joinFirst(tmdbDetails.similarTitles()))
+                .watchProviders(String.join(", ", tmdbDetails.watchProviders()))
+                .build();
+    }
+
+    /**
+     * Constructs a {@link Movie} object from OMDb data only, for storing before the TMDb data is fetched.
+     *
+     * @param omdbData JSON object containing data from the OMDb API
+     * @return a {@link Movie} with the OMDb fields filled in and enrichment {@code PENDING}
+     */
+    public Movie buildCoreMovie(JSONObject omdbData) {
+        return omdbMovie(omdbData, List.of())
+                .enrichmentStatus(Movie.EnrichmentStatus.PENDING)
+                .build();
+    }
+
+    /**
+     * Fills in the TMDb fields of a movie built with {@link #buildCoreMovie(JSONObject)}
+     * and marks its enrichment as complete.
+     *
+     * @param movie       the movie to enrich
+     * @param tmdbDetails backdrops, keywords, similar movies and watch providers from TMDb
+     * @param imagePaths  List of local paths where images were saved
+     */
+    public void applyTmdbDetails(Movie movie, TmdbDetails tmdbDetails, List<String> imagePaths) {
+        movie.setKeywords(joinFirst(tmdbDetails.keywords()));
+        movie.setSimilarMovies(joinFirst(tmdbDetails.similarTitles()));
+        movie.setWatchProviders(String.join(", ", tmdbDetails.watchProviders()));
+        movie.setImagePath1(imagePaths.size() > 0 ? imagePaths.get(0) : null);
+        movie.setImagePath2(imagePaths.size() > 1 ? imagePaths.get(1) : null);
+        movie.setImagePath3(imagePaths.size() > 2 ? imagePaths.get(2) : null);
+        movie.setEnrichmentStatus(Movie.EnrichmentStatus.COMPLETE);
+    }
 
+    /**
+     * Starts a {@link Movie} with the OMDb fields and the saved images filled in.
+     *
+     * @param omdbData   JSON object containing data from the OMDb API
+     * @param imagePaths List of local paths where images were saved
+     * @return a builder for the rest of the fields, with the fetch time set to now
+     */
+    private Movie.MovieBuilder omdbMovie(JSONObject omdbData, List<String> imagePaths) {
         return Movie.builder()
                 .title(omdbData.optString("Title"))
                 .year(omdbData.optString("Year"))
@@ -47,12 +87,19 @@ public class MovieBuilder {
                 .imagePath1(imagePaths.size() > 0 ? imagePaths.get(0) : null)
                 .imagePath2(imagePaths.size() > 1 ? imagePaths.get(1) : null)
                 .imagePath3(imagePaths.size() > 2 ? imagePaths.get(2) : null)
-                .keywords(extractKeywords(keywords))
-                .similarMovies(extractSimilarMovies(similar))
-                .watchProviders(extractWatchProviders(providers))
                 .watched(false)
                 .rating(null)
-                .build();
+                .lastFetchedAt(Instant.now());
+    }
+
+    /**
+     * Joins the first 3 values into a comma-separated string.
+     *
+     * @param values the values to join
+     * @return comma-separated string of up to 3 values
+     */
+    private String joinFirst(List<String> values) {
+        return String.join(", ", values.subList(0, Math.min(3, values.size())));
     }
 
     /**
@@ -67,58 +114,4 @@ public class MovieBuilder {
                 .mapToObj(i -> actorsArray[i].trim())
                 .collect(Collectors.joining(", "));
     }
-
-    /**
-     * Extracts keywords from the TMDb JSON object.
-     *
-     * @param keywords JSON object containing the "keywords" array
-     * @return comma-separated list of keyword names
-     */
-    private String extractKeywords(JSONObject keywords) {
-        return flattenJsonArray(keywords.optJSONArray("keywords"), "name");
-    }
-
-    /**
-     * Extracts similar movie titles from the TMDb JSON object.
-     *
-     * @param similar JSON object containing the "results" array
-     * @return comma-separated list of similar movie titles
-     */
-    private String extractSimilarMovies(JSONObject similar) {
-        return flattenJsonArray(similar.optJSONArray("results"), "title");
-    }
-
-    /**
-     * Converts a JSON array into a comma-separated string using the given key.
-     *
-     * @param array the JSONArray to flatten
-     * @param key   the key to extract values from each object
-     * @return comma-separated string of extracted values
-     */
-    private String flattenJsonArray(JSONArray array, String key) {
-        if (array == null) return "";
-        return IntStream.range(0, Math.min(3, array.length()))
-                .mapToObj(i -> array.getJSONObject(i).optString(key))
-                .collect(Collectors.joining(", "));
-    }
-
-    /**
-     * Extracts watch provider names from the TMDb JSON object.
-     * Focuses on "US" region and "flatrate" category.
-     *
-     * @param providerData JSON object containing watch provider info
-     * @return comma-separated list of provider names
-     */
-    private String extractWatchProviders(JSONObject providerData) {
-        JSONObject results = providerData.optJSONObject("results");
-        if (results != null && results.has("US")) {
-            JSONArray flatrate = results.getJSONObject("US").optJSONArray("flatrate");
-            if (flatrate != null) {
-                return IntStream.range(0, flatrate.length())
-                        .mapToObj(i -> flatrate.getJSONObject(i).optString("provider_name"))
-                        .collect(Collectors.joining(", "));
-            }
-        }
-        return "";
-    }
-}
\ No newline at end of file
+}
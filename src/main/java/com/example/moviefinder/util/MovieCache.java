@@ -0,0 +1,225 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.model.Movie;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded in-memory cache of {@link Movie} entities by ID, so repeated reads of the same movie
+ * do not query the database.
+ * <p>
+ * Every code path that changes a stored movie evicts it after its change is committed. To keep a
+ * read that raced with such a change from caching the old row, each load registers itself under its
+ * movie's ID, and a loaded movie is only cached if that movie was not evicted while it was being loaded.
+ * Evictions of other movies do not affect it. The TTL bounds how long a change made outside the
+ * application (e.g. through the H2 console) can stay invisible.
+ * <p>
+ * Movies are copied on the way in and out, so callers can never change a cached instance.
+ * <p>
+ * Next to the entities, the cache keeps each movie's encoded JSON response, so a movie read by ID
+ * is serialized once per change instead of once per request. Both are evicted together.
+ */
+@Component
+public class MovieCache {
+
+    private final ResponseCache<Long, Movie> cache;
+    private final ResponseCache<Long, EncodedMovie> encoded;
+    private final Duration ttl;
+    private final Map<Long, Load> loads = new HashMap<>();
+    private long evictions;
+
+    /**
+     * Creates the cache.
+     *
+     * @param maxEntries maximum number of movies kept before the least recently used is evicted
+     * @param ttl        how long a movie is served from the cache
+     */
+    public MovieCache(@Value("${moviefinder.movie-cache.max-entries:1000}") int maxEntries,
+                      @Value("${moviefinder.movie-cache.ttl:PT10M}") Duration ttl) {
+        this.cache = new ResponseCache<>(maxEntries);
+        this.encoded = new ResponseCache<>(maxEntries);
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns a cached movie, or loads and caches it.
+     *
+     * @param id     the ID of the movie
+     * @param loader loads the movie from the database on a miss
+     * @return a copy of the movie, or empty if it does not exist (which is not cached)
+     */
+    public Optional<Movie> get(Long id, Function<Long, Optional<Movie>> loader) {
+        Movie cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached.toBuilder().build());
+        }
+
+        Load load = startLoad(id);
+        try {
+            Optional<Movie> loaded = loader.apply(id);
+            loaded.ifPresent(movie -> putIfNotEvicted(id, movie.toBuilder().build(), load));
+            return loaded;
+        } finally {
+            endLoad(id, load);
+        }
+    }
+
+    /**
+     * Returns the cached encoded response of a movie, or loads, encodes and caches it.
+     *
+     * @param id      the ID of the movie
+     * @param loader  loads the movie from the database on a miss
+     * @param encoder encodes the movie's response
+     * @return the encoded response, or empty if the movie does not exist (which is not cached)
+     */
+    public Optional<EncodedMovie> getEncoded(Long id, Function<Long, Optional<Movie>> loader,
+                                             Function<Movie, EncodedMovie> encoder) {
+        EncodedMovie cached = encoded.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Load load = startLoad(id);
+        try {
+            Optional<EncodedMovie> loaded = get(id, loader).map(encoder);
+            loaded.ifPresent(response -> putEncodedIfNotEvicted(id, response, load));
+            return loaded;
+        } finally {
+            endLoad(id, load);
+        }
+    }
+
+    /**
+     * Removes a changed or deleted movie and its encoded response from the cache.
+     *
+     * @param id the ID of the movie
+     */
+    public synchronized void evict(Long id) {
+        evictions++;
+        Load load = loads.remove(id);
+        if (load != null) {
+            load.evicted = true;
+        }
+        cache.remove(id);
+        encoded.remove(id);
+    }
+
+    /**
+     * Removes changed or deleted movies from the cache.
+     *
+     * @param ids the IDs of the movies
+     */
+    public synchronized void evictAll(Collection<Long> ids) {
+        ids.forEach(this::evict);
+    }
+
+    /**
+     * Returns the size, hit ratio and eviction counters of the cache.
+     *
+     * @return a snapshot of the cache statistics, including the number of evictions by changes
+     *         and the statistics of the encoded responses
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = cache.stats();
+        stats.put("invalidations", evictionCount());
+        stats.put("encoded", encoded.stats());
+        return stats;
+    }
+
+    /**
+     * Returns the number of evictions by changes so far.
+     */
+    private synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Registers a load of a movie, joining the loads already running for it.
+     */
+    private synchronized Load startLoad(Long id) {
+        Load load = loads.computeIfAbsent(id, key -> new Load());
+        load.running++;
+        return load;
+    }
+
+    /**
+     * Unregisters a load of a movie once no other load of it is running.
+     */
+    private synchronized void endLoad(Long id, Load load) {
+        if (--load.running == 0) {
+            loads.remove(id, load);
+        }
+    }
+
+    /**
+     * Caches a loaded movie unless it was evicted since the load started,
+     * since the loaded row may then predate that change.
+     */
+    private synchronized void putIfNotEvicted(Long id, Movie movie, Load load) {
+        if (!load.evicted) {
+            cache.put(id, movie, ttl);
+        }
+    }
+
+    /**
+     * Caches an encoded response unless the movie was evicted since the load started.
+     */
+    private synchronized void putEncodedIfNotEvicted(Long id, EncodedMovie response, Load load) {
+        if (!load.evicted) {
+            encoded.put(id, response, ttl);
+        }
+    }
+
+    /**
+     * The loads of one movie that started since it was last evicted; guarded by the cache's lock.
+     * An eviction marks it and removes it, so loads starting afterwards register a new one.
+     */
+    private static final class Load {
+        private int running;
+        private boolean evicted;
+    }
+
+    /**
+     * The encoded JSON response of a movie, and a gzip-compressed copy if the response is large enough.
+     *
+     * @param json    the JSON response body
+     * @param gzipped the gzip-compressed body, or {@code null} if the body is sent uncompressed
+     */
+    public record EncodedMovie(byte[] json, byte[] gzipped) {
+
+        /**
+         * Creates an encoded response, compressing bodies of at least {@code gzipMinSize} bytes.
+         *
+         * @param json        the JSON response body
+         * @param gzipMinSize the minimum body size worth compressing
+         * @return the encoded response
+         */
+        public static EncodedMovie of(byte[] json, int gzipMinSize) {
+            return new EncodedMovie(json, json.length >= gzipMinSize ? gzip(json) : null);
+        }
+
+        /**
+         * Compresses a response body with gzip.
+         */
+        private static byte[] gzip(byte[] json) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(json);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -1,29 +1,55 @@
 package com.example.moviefinder.util;
 
 import com.example.moviefinder.exceptions.MovieDataFetchException;
+import com.example.moviefinder.exceptions.OmdbApiException;
 import com.example.moviefinder.exceptions.TmdbApiException;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
 import com.example.moviefinder.model.Movie;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A utility component responsible for orchestrating the retrieval of movie data
  * from OMDb and TMDb APIs, aggregating it, and constructing a {@link Movie} entity.
  *
- * <p>Fetches primary movie data sequentially, then performs parallel requests for
- * additional data like images, keywords, similar movies, and watch providers.</p>
+ * <p>Fetches OMDb data and searches TMDb concurrently, then fetches additional data like images,
+ * keywords, similar movies, and watch providers in a single combined TMDb request.</p>
+ *
+ * <p>If TMDb is unavailable (its circuit breaker is open or its concurrency limit is reached),
+ * the movie is built from the OMDb data alone, without images and TMDb enrichment.</p>
+ *
+ * <p>For two-phase ingests, {@link #fetchCoreMovie(String)} builds a movie from OMDb alone and
+ * {@link #enrichMovie(Movie)} fills in the TMDb data later.</p>
+ *
+ * <p>{@link #fetchFreshMetadata(Movie)} re-fetches the metadata of a stored movie for the scheduled
+ * refresh, using only the spare capacity of the APIs and without the ingest executor.
+ * {@link #rebuildMetadata(Movie)} rebuilds it from the cached responses without calling the APIs.</p>
  */
 @Component
 public class MovieDataFetcher {
 
+    private static final Logger log = LoggerFactory.getLogger(MovieDataFetcher.class);
+
     private final OmdbClient omdbClient;
     private final TmdbClient tmdbClient;
     private final ImageDownloader imageDownloader;
     private final MovieBuilder movieBuilder;
-    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final Executor executor;
 
     /**
      * Constructs the MovieDataFetcher with all required dependencies.
@@ -32,62 +58,291 @@ public class MovieDataFetcher {
      * @param tmdbClient      client to fetch data from TMDb API
      * @param imageDownloader utility for downloading image files
      * @param movieBuilder    utility to build a {@link Movie} from collected data
+     * @param executor        executor running the upstream calls and image downloads
      */
     public MovieDataFetcher(OmdbClient omdbClient, TmdbClient tmdbClient,
-                            ImageDownloader imageDownloader, MovieBuilder movieBuilder) {
+                            ImageDownloader imageDownloader, MovieBuilder movieBuilder,
+                            @Qualifier("ingestExecutor") Executor executor) {
         this.omdbClient = omdbClient;
         this.tmdbClient = tmdbClient;
         this.imageDownloader = imageDownloader;
         this.movieBuilder = movieBuilder;
+        this.executor = executor;
     }
 
     /**
      * Fetches movie data from OMDb and TMDb, performs additional resource lookups,
      * downloads images, and builds a {@link Movie} entity.
      *
+     * <p>The steps run as a dependency graph: the OMDb lookup and the TMDb search start together,
+     * the TMDb details request starts as soon as the search returns, and the image download starts
+     * once both the OMDb data and the TMDb details are available. If any step fails, the steps that
+     * have not started yet are skipped and the threads of the running steps are interrupted, which
+     * aborts their rate limit waits, HTTP requests and image downloads; the original failure is rethrown.
+     * An unavailable TMDb is not a failure: the pipeline continues with empty TMDb details.</p>
+     *
      * @param titleInput the movie title to search
-     * @return a fully populated {@link Movie} object
-     * @throws MovieDataFetchException if any fetching or processing error occurs
-     * @throws TmdbApiException        if no TMDb results are found
+     * @return a populated {@link Movie} object, without TMDb data and with enrichment {@code FAILED}
+     *         if TMDb is unavailable
+     * @throws MovieDataFetchException      if any fetching or processing error occurs
+     * @throws TmdbApiException             if no TMDb results are found
+     * @throws UpstreamUnavailableException if OMDb is unavailable
      */
     public Movie fetchAndBuildMovie(String titleInput) {
-        try {
-            // Step 1: Fetch data from OMDb and TMDb (basic search)
-            JSONObject omdbData = omdbClient.fetchMovieData(titleInput); // May throw OmdbApiException
-            JSONObject tmdbSearch = tmdbClient.searchMovie(titleInput);  // May throw TmdbApiException
+        RunningSteps running = new RunningSteps();
 
-            if (tmdbSearch == null || tmdbSearch.getJSONArray("results").isEmpty()) {
-                throw new TmdbApiException("No TMDB results found for title: " + titleInput);
-            }
+        // Step 1: Fetch data from OMDb and search TMDb concurrently
+        CompletableFuture<JSONObject> omdbFuture = CompletableFuture.supplyAsync(
+                () -> running.run(() -> omdbClient.fetchMovieData(titleInput)), executor);
+        CompletableFuture<JSONObject> searchFuture = CompletableFuture.supplyAsync(
+                () -> running.run(() -> tmdbClient.searchMovie(titleInput)), executor);
 
-            JSONObject tmdbResult = tmdbSearch.getJSONArray("results").getJSONObject(0);
-            int tmdbId = tmdbResult.getInt("id");
+        // Step 2: Fetch images, keywords, similar movies and watch providers in one request,
+        // continuing without them if TMDb is unavailable
+        CompletableFuture<TmdbDetails> tmdbFuture = searchFuture.thenApplyAsync(tmdbSearch -> running.run(
+                () -> tmdbClient.fetchCombinedDetails(firstResultId(tmdbSearch, titleInput))), executor);
+        AtomicBoolean tmdbUnavailable = new AtomicBoolean();
+        CompletableFuture<TmdbDetails> detailsFuture = tmdbFuture.exceptionally(ex -> {
+            if (unwrap(ex) instanceof UpstreamUnavailableException unavailable) {
+                log.warn("Building {} without TMDb data: {}", titleInput, unavailable.getMessage());
+                tmdbUnavailable.set(true);
+                return TmdbDetails.EMPTY;
+            }
+            throw ex instanceof CompletionException completion ? completion : new CompletionException(ex);
+        });
 
-            // Step 2: Fetch additional TMDb resources in parallel
-            Future<JSONObject> imagesFuture = executor.submit(() -> tmdbClient.fetchMovieDetails(tmdbId, "images"));
-            Future<JSONObject> keywordsFuture = executor.submit(() -> tmdbClient.fetchMovieDetails(tmdbId, "keywords"));
-            Future<JSONObject> similarFuture = executor.submit(() -> tmdbClient.fetchMovieDetails(tmdbId, "similar"));
-            Future<JSONObject> providersFuture = executor.submit(() -> tmdbClient.fetchMovieDetails(tmdbId, "watch/providers"));
+        // Step 3: Download image files once the title and the image list are known
+        CompletableFuture<List<String>> imagePathsFuture = omdbFuture.thenCombineAsync(detailsFuture,
+                (omdbData, details) -> details.backdropPaths().isEmpty()
+                        ? List.<String>of()
+                        : running.run(() -> imageDownloader.downloadImages(details.backdropPaths(), omdbData.getString("Title"))),
+                executor);
 
-            JSONObject images = imagesFuture.get();
-            JSONObject keywords = keywordsFuture.get();
-            JSONObject similar = similarFuture.get();
-            JSONObject providers = providersFuture.get();
+        // Step 4: Build Movie entity
+        CompletableFuture<Movie> movieFuture = imagePathsFuture.thenApply(imagePaths -> {
+            Movie movie = movieBuilder.buildMovie(omdbFuture.join(), detailsFuture.join(), imagePaths);
+            if (tmdbUnavailable.get()) {
+                movie.setEnrichmentStatus(Movie.EnrichmentStatus.FAILED);
+            }
+            return movie;
+        });
 
-            // Step 3: Download image files and build Movie entity
-            List<String> imagePaths = imageDownloader.downloadImages(images, omdbData.getString("Title"));
-            return movieBuilder.buildMovie(omdbData, tmdbResult, images, keywords, similar, providers, imagePaths);
+        List<CompletableFuture<?>> stages = List.of(omdbFuture, searchFuture, tmdbFuture, detailsFuture, imagePathsFuture, movieFuture);
+        // The raw TMDb stages are not watched: their failures reach detailsFuture unless TMDb is unavailable
+        List<CompletableFuture<?>> watched = List.of(omdbFuture, detailsFuture, imagePathsFuture, movieFuture);
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        watched.forEach(stage -> stage.whenComplete((result, ex) -> {
+            if (ex != null && !(unwrap(ex) instanceof CancellationException)) {
+                firstFailure.compareAndSet(null, unwrap(ex));
+                cancel(running, stages);
+            }
+        }));
 
-        } catch (ExecutionException e) {
-            // Propagate underlying exception from any failed future
-            Throwable cause = e.getCause();
+        try {
+            return movieFuture.get();
+        } catch (ExecutionException | CancellationException e) {
+            // Propagate the exception that caused the pipeline to fail, not the resulting cancellations
+            Throwable cause = firstFailure.get() != null ? firstFailure.get() : unwrap(e);
             if (cause instanceof RuntimeException) {
                 throw (RuntimeException) cause;
             }
-            throw new MovieDataFetchException("Error during parallel data fetching", e);
+            throw new MovieDataFetchException("Error during parallel data fetching", cause);
         } catch (InterruptedException e) {
+            cancel(running, stages);
             Thread.currentThread().interrupt(); // Best practice to reset the thread interrupt flag
             throw new MovieDataFetchException("Thread interrupted during data fetch", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stops a failed pipeline: interrupts its running steps and completes its futures,
+     * so the steps not started yet are skipped.
+     *
+     * @param running the pipeline's running steps
+     * @param stages  the pipeline's futures
+     */
+    private void cancel(RunningSteps running, List<CompletableFuture<?>> stages) {
+        // CompletableFuture.cancel never interrupts; it only keeps dependent steps from starting
+        stages.forEach(stage -> stage.cancel(false));
+        running.cancel();
+    }
+
+    /**
+     * Fetches only the OMDb data of a movie and builds a {@link Movie} with enrichment {@code PENDING},
+     * for storing it before the TMDb data is available.
+     *
+     * @param titleInput the movie title to search
+     * @return a {@link Movie} with the OMDb fields filled in
+     * @throws OmdbApiException             if the movie is not found on OMDb
+     * @throws UpstreamUnavailableException if OMDb is unavailable
+     */
+    public Movie fetchCoreMovie(String titleInput) {
+        return movieBuilder.buildCoreMovie(omdbClient.fetchMovieData(titleInput));
+    }
+
+    /**
+     * Fetches the TMDb data of a movie stored by a two-phase ingest, downloads its images,
+     * and fills in its TMDb fields.
+     * <p>
+     * Runs in the background, so the steps simply run one after another on the calling thread.
+     *
+     * @param movie the movie to enrich; its TMDb fields are set and its enrichment becomes {@code COMPLETE}
+     * @return the enriched movie
+     * @throws TmdbApiException             if no TMDb results are found
+     * @throws UpstreamUnavailableException if TMDb is unavailable
+     */
+    public Movie enrichMovie(Movie movie) {
+        int tmdbId = firstResultId(tmdbClient.searchMovie(movie.getTitle()), movie.getTitle());
+        TmdbDetails details = tmdbClient.fetchCombinedDetails(tmdbId);
+        List<String> imagePaths = details.backdropPaths().isEmpty()
+                ? List.of()
+                : imageDownloader.downloadImages(details.backdropPaths(), movie.getTitle());
+        movieBuilder.applyTmdbDetails(movie, details, imagePaths);
+        return movie;
+    }
+
+    /**
+     * Re-fetches the OMDb and TMDb metadata of a stored movie, bypassing the response caches.
+     * <p>
+     * Runs in the background on the calling thread and only uses the spare capacity of the
+     * rate limiters, so it never competes with interactive ingests. Images are not downloaded
+     * again; the stored ones are kept.
+     *
+     * @param stored the stored movie
+     * @return a new movie with the fresh metadata and the stored images, without ID and version
+     * @throws OmdbApiException             if the movie is not found on OMDb, or OMDb now returns another release year
+     * @throws TmdbApiException             if no TMDb results are found
+     * @throws UpstreamUnavailableException if an API is unavailable or has no spare capacity
+     */
+    public Movie fetchFreshMetadata(Movie stored) {
+        return buildMetadata(stored, omdbClient.refreshMovieData(stored.getTitle()),
+                tmdbClient::refreshSearch, tmdbClient::refreshCombinedDetails);
+    }
+
+    /**
+     * Rebuilds the metadata of a stored movie from the cached OMDb and TMDb responses,
+     * e.g. after a change to the {@link MovieBuilder}, without calling the APIs.
+     *
+     * @param stored the stored movie
+     * @return a new movie with the rebuilt metadata and the stored images, without ID and version
+     * @throws OmdbApiException             if the cached OMDb response is an error, or for another release year
+     * @throws TmdbApiException             if the cached TMDb search has no results
+     * @throws UpstreamUnavailableException if a response is not cached
+     */
+    public Movie rebuildMetadata(Movie stored) {
+        return buildMetadata(stored, omdbClient.storedMovieData(stored.getTitle()),
+                tmdbClient::storedSearch, tmdbClient::storedCombinedDetails);
+    }
+
+    /**
+     * Builds the metadata of a stored movie from an OMDb response and the TMDb responses
+     * obtained through the given lookups, keeping the stored images.
+     *
+     * @param stored          the stored movie
+     * @param omdbData        the OMDb response for the movie's title
+     * @param search          looks up the TMDb search result of a title
+     * @param combinedDetails looks up the combined TMDb details of a TMDb ID
+     * @return a new movie with the metadata and the stored images, without ID and version
+     * @throws OmdbApiException if the OMDb response is for another release year
+     * @throws TmdbApiException if the TMDb search has no results
+     */
+    private Movie buildMetadata(Movie stored, JSONObject omdbData, Function<String, JSONObject> search,
+                                IntFunction<TmdbDetails> combinedDetails) {
+        Movie fresh = movieBuilder.buildCoreMovie(omdbData);
+        if (!Objects.equals(fresh.getYear(), stored.getYear())) {
+            throw new OmdbApiException("OMDb returned " + fresh.getTitle() + " (" + fresh.getYear()
+                    + ") for " + stored.getTitle() + " (" + stored.getYear() + ")");
+        }
+        int tmdbId = firstResultId(search.apply(stored.getTitle()), stored.getTitle());
+        List<String> imagePaths = Stream.of(stored.getImagePath1(), stored.getImagePath2(), stored.getImagePath3())
+                .filter(Objects::nonNull)
+                .toList();
+        movieBuilder.applyTmdbDetails(fresh, combinedDetails.apply(tmdbId), imagePaths);
+        return fresh;
+    }
+
+    /**
+     * Extracts the TMDb ID of the first search result.
+     *
+     * @param tmdbSearch the TMDb search response
+     * @param titleInput the searched title, used in the error message
+     * @return the TMDb movie ID
+     * @throws TmdbApiException if the search returned no results
+     */
+    private int firstResultId(JSONObject tmdbSearch, String titleInput) {
+        if (tmdbSearch == null || tmdbSearch.getJSONArray("results").isEmpty()) {
+            throw new TmdbApiException("No TMDB results found for title: " + titleInput);
+        }
+        return tmdbSearch.getJSONArray("results").getJSONObject(0).getInt("id");
+    }
+
+    /**
+     * Strips the {@link ExecutionException} or {@link CompletionException} wrappers added by futures.
+     *
+     * @param throwable the exception thrown by a future
+     * @return the underlying cause
+     */
+    private Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * The threads currently running steps of one ingest pipeline.
+     * <p>
+     * Once cancelled, steps that have not started yet fail with a {@link CancellationException}, and
+     * the threads of running steps are interrupted. A thread is only interrupted while it runs a step
+     * of this pipeline, and the interrupt is cleared when the step ends, so it cannot leak into the
+     * next task of a pooled thread.
+     */
+    private static final class RunningSteps {
+
+        private final Set<Thread> threads = new HashSet<>();
+        private boolean cancelled;
+
+        /**
+         * Runs a step on the current thread, unless the pipeline is cancelled.
+         *
+         * @param step the step to run
+         * @param <T>  the step's result type
+         * @return the step's result
+         * @throws CancellationException if the pipeline was cancelled before the step started
+         */
+        <T> T run(Supplier<T> step) {
+            start();
+            try {
+                return step.get();
+            } finally {
+                end();
+            }
+        }
+
+        /**
+         * Cancels the pipeline and interrupts the threads of its running steps.
+         */
+        synchronized void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                threads.forEach(Thread::interrupt);
+            }
+        }
+
+        private synchronized void start() {
+            if (cancelled) {
+                throw new CancellationException("Ingest pipeline cancelled");
+            }
+            threads.add(Thread.currentThread());
+        }
+
+        private synchronized void end() {
+            threads.remove(Thread.currentThread());
+            if (cancelled) {
+                Thread.interrupted();
+            }
+        }
+    }
+}
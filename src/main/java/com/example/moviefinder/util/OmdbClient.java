@@ -1,36 +1,92 @@
 package com.example.moviefinder.util;
 
 import com.example.moviefinder.exceptions.OmdbApiException;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * Client component responsible for communicating with the OMDb API to retrieve movie metadata.
  * <p>
  * Uses {@link RestTemplate} to perform HTTP GET requests and parses the response as JSON.
  * Handles error responses from the API and wraps exceptions in a custom {@link OmdbApiException}.
+ * <p>
+ * Raw responses are kept in a bounded {@link ResponseCache}, so repeated lookups of the same title
+ * skip the network. "Movie not found!" answers are cached too, but only for a short time.
+ * <p>
+ * Calls are paced by a {@link RateLimiter} before they enter an {@link UpstreamGuard}, so waiting for a
+ * token never holds a bulkhead slot. While OMDb is unreachable, an expired cached
+ * response is served if there is one.
+ * <p>
+ * {@link #refreshMovieData(String)} is meant for background refreshes: it always asks OMDb, but only
+ * when the rate limiter has spare capacity, so it never delays interactive lookups.
+ * <p>
+ * Successful responses are also kept in the persistent {@link RawResponseStore}, which is consulted
+ * after the in-memory cache. In offline mode, only stored responses are served.
  */
 @Component
 public class OmdbClient {
 
+    private static final Logger log = LoggerFactory.getLogger(OmdbClient.class);
+
+    private static final String UPSTREAM = "omdb";
+
     /**
      * API key for authenticating with the OMDb API, loaded from the application properties.
      */
     @Value("${omdb.api.key}")
     private String omdbApiKey;
 
+    /**
+     * How long a successful OMDb response is served from the cache.
+     */
+    @Value("${omdb.cache.ttl:PT6H}")
+    private Duration cacheTtl = Duration.ofHours(6);
+
+    /**
+     * How long a "Movie not found!" response is served from the cache.
+     */
+    @Value("${omdb.cache.negative-ttl:PT5M}")
+    private Duration negativeCacheTtl = Duration.ofMinutes(5);
+
     private final RestTemplate restTemplate;
+    private final ResponseCache<String, String> cache;
+    private final UpstreamGuard guard;
+    private final RateLimiter rateLimiter;
+    private final RawResponseStore rawResponseStore;
 
     /**
      * Constructs the OmdbClient with a provided {@link RestTemplate}.
      *
-     * @param restTemplate injected RestTemplate used to make HTTP requests
+     * @param restTemplate     injected RestTemplate used to make HTTP requests
+     * @param cacheMaxEntries  maximum number of responses kept in the cache
+     * @param guard            circuit breaker and bulkhead for the OMDb API
+     * @param rateLimiter      rate limiter for the OMDb API key
+     * @param rawResponseStore persistent cache of raw responses
      */
-    public OmdbClient(RestTemplate restTemplate) {
+    public OmdbClient(RestTemplate restTemplate,
+                      @Value("${omdb.cache.max-entries:500}") int cacheMaxEntries,
+                      @Qualifier("omdbGuard") UpstreamGuard guard,
+                      @Qualifier("omdbRateLimiter") RateLimiter rateLimiter,
+                      RawResponseStore rawResponseStore) {
         this.restTemplate = restTemplate;
+        this.cache = new ResponseCache<>(cacheMaxEntries);
+        this.guard = guard;
+        this.rateLimiter = rateLimiter;
+        this.rawResponseStore = rawResponseStore;
     }
 
     /**
@@ -38,22 +94,164 @@ public class OmdbClient {
      *
      * @param title the movie title to search for
      * @return a {@link JSONObject} containing OMDb metadata
-     * @throws OmdbApiException if the API response indicates failure or the request fails
+     * @throws OmdbApiException             if the API response indicates failure or the request fails
+     * @throws UpstreamUnavailableException if OMDb is unavailable (or offline mode is on) and no cached response exists
      */
     public JSONObject fetchMovieData(String title) {
+        return fetchMovieData(title, FetchMode.INTERACTIVE);
+    }
+
+    /**
+     * Fetches fresh metadata for a movie title from OMDb for a background refresh, bypassing the cache.
+     * The request is only made if the OMDb rate limiter has spare capacity; the response replaces the cached one.
+     *
+     * @param title the movie title to look up
+     * @return a {@link JSONObject} containing OMDb metadata
+     * @throws OmdbApiException             if the API response indicates failure or the request fails
+     * @throws UpstreamUnavailableException if OMDb is unavailable, has no spare capacity, or offline mode is on
+     */
+    public JSONObject refreshMovieData(String title) {
+        return fetchMovieData(title, FetchMode.BACKGROUND);
+    }
+
+    /**
+     * Returns the cached metadata for a movie title, however old, without calling OMDb.
+     *
+     * @param title the movie title to look up
+     * @return a {@link JSONObject} containing OMDb metadata
+     * @throws OmdbApiException             if the cached response indicates failure
+     * @throws UpstreamUnavailableException if no response is cached for the title
+     */
+    public JSONObject storedMovieData(String title) {
+        return fetchMovieData(title, FetchMode.STORED_ONLY);
+    }
+
+    /**
+     * Fetches metadata for a movie title from the in-memory cache, the {@link RawResponseStore} or OMDb,
+     * depending on the fetch mode. Fetched responses are put in both caches.
+     *
+     * @param title the movie title to look up
+     * @param mode  how the response may be obtained
+     * @return a {@link JSONObject} containing OMDb metadata
+     * @throws OmdbApiException             if the API response indicates failure or the request fails
+     * @throws UpstreamUnavailableException if OMDb is unavailable and no usable cached response exists
+     */
+    private JSONObject fetchMovieData(String title, FetchMode mode) {
+        String cacheKey = "t=" + TitleNormalizer.normalize(title);
+        String response = mode == FetchMode.BACKGROUND ? null : cache.get(cacheKey);
+        RawResponseStore.StoredResponse stored = response == null && mode != FetchMode.BACKGROUND
+                ? rawResponseStore.find(UPSTREAM, cacheKey)
+                : null;
+        boolean storedOnly = mode == FetchMode.STORED_ONLY || rawResponseStore.isOffline();
+        if (stored != null && (storedOnly || stored.isFresh(cacheTtl))) {
+            response = stored.payload();
+            cache.put(cacheKey, response, stored.remainingTtl(cacheTtl));
+        }
+        boolean fetched = false;
+        JSONObject json = null;
+
         try {
-            String url = "http://www.omdbapi.com/?t=" + title + "&apikey=" + omdbApiKey;
-            String response = restTemplate.getForObject(url, String.class);
-            JSONObject json = new JSONObject(response);
+            if (response == null) {
+                if (storedOnly) {
+                    throw new UpstreamUnavailableException(UPSTREAM, "No stored OMDb response for " + title, Duration.ZERO);
+                }
+                String url = "https://www.omdbapi.com/?t=" + title + "&apikey=" + omdbApiKey;
+                try {
+                    response = mode == FetchMode.BACKGROUND
+                            ? rateLimiter.executeWithSpareCapacity(() -> guard.execute(() -> restTemplate.getForObject(url, String.class)))
+                            : rateLimiter.execute(() -> guard.execute(() -> restTemplate.getForObject(url, String.class)));
+                    json = parse(response, title);
+                    fetched = true;
+                } catch (UpstreamUnavailableException | ResourceAccessException | HttpServerErrorException
+                         | OmdbApiException e) {
+                    // A malformed body is handled like a server error
+                    response = mode == FetchMode.BACKGROUND ? null : cache.getStale(cacheKey);
+                    if (response == null && stored != null) {
+                        response = stored.payload();
+                    }
+                    if (response == null) {
+                        throw e;
+                    }
+                    log.warn("OMDb unavailable, serving stale response for {}: {}", title, e.getMessage());
+                }
+            }
+            if (json == null) {
+                json = parse(response, title);
+            }
 
             // OMDb API returns { "Response": "False", "Error": "Movie not found!" } on failure
             if (!json.optString("Response", "True").equalsIgnoreCase("True")) {
+                if (fetched && isNotFound(json)) {
+                    cache.put(cacheKey, response, negativeCacheTtl);
+                }
                 throw new OmdbApiException("OMDb error: " + json.optString("Error", "Unknown error"));
             }
 
+            if (fetched) {
+                cache.put(cacheKey, response, cacheTtl);
+                rawResponseStore.save(UPSTREAM, cacheKey, response);
+            }
             return json;
         } catch (RestClientException e) {
             throw new OmdbApiException("Failed to fetch data from OMDb for title: " + title, e);
         }
     }
+
+    /**
+     * Parses an OMDb response body.
+     *
+     * @param response the response body
+     * @param title    the movie title (used in the error message)
+     * @return the parsed response
+     * @throws OmdbApiException if the body is empty or not a JSON object
+     */
+    private JSONObject parse(String response, String title) {
+        if (response == null) {
+            throw new OmdbApiException("Empty OMDb response for title: " + title);
+        }
+        try {
+            return new JSONObject(response);
+        } catch (JSONException e) {
+            throw new OmdbApiException("Invalid OMDb response for title: " + title, e);
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the response cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public Map<String, Object> cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the state and counters of the OMDb circuit breaker and bulkhead.
+     *
+     * @return a snapshot of the guard statistics
+     */
+    public Map<String, Object> guardStats() {
+        return guard.stats();
+    }
+
+    /**
+     * Returns the current rate and counters of the OMDb rate limiter.
+     *
+     * @return a snapshot of the rate limiter statistics
+     */
+    public Map<String, Object> rateLimiterStats() {
+        return rateLimiter.stats();
+    }
+
+    /**
+     * Checks whether an OMDb response is a failure that may be cached (e.g. "Movie not found!").
+     * Other failures, such as an invalid API key or exceeded quota, are never cached.
+     *
+     * @param json the parsed OMDb response
+     * @return {@code true} if the response reports that the movie does not exist
+     */
+    private boolean isNotFound(JSONObject json) {
+        return json.optString("Response", "True").equalsIgnoreCase("False")
+                && json.optString("Error").toLowerCase(Locale.ROOT).contains("not found");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,381 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Client-side token-bucket rate limiter for the requests made with one API key.
+ * <p>
+ * Tokens are added at {@code requestsPerSecond} up to {@code burst}. A caller without a token
+ * reserves the next one and waits for it, so callers above the limit queue up in order instead of
+ * failing; only a caller that would have to wait longer than {@code maxWait} is rejected with an
+ * {@link UpstreamUnavailableException}.
+ * <p>
+ * When the API answers {@code 429 Too Many Requests}, all requests are paused for the time given
+ * in its {@code Retry-After} header (or {@code defaultBackoff}), and the rate is halved. Each
+ * successful request then raises the rate by a twentieth of the configured maximum again.
+ * <p>
+ * Background work such as the scheduled metadata refresh uses {@link #executeWithSpareCapacity(Supplier)},
+ * which never waits: it only takes a token while more than {@code backgroundReserve} of the burst is left
+ * and the limiter is neither paused nor running at a reduced rate, so interactive requests keep priority.
+ */
+public class RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    private static final double MIN_RATE_FACTOR = 0.1;
+    private static final int RATE_RECOVERY_STEPS = 20;
+
+    private final String name;
+    private final double maxRate;
+    private final double burst;
+    private final Duration maxWait;
+    private final Duration defaultBackoff;
+    private final int maxRetries;
+    private final double backgroundReserve;
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong backgroundAcquired = new AtomicLong();
+    private final AtomicLong backgroundDeclined = new AtomicLong();
+
+    /**
+     * Creates a rate limiter with a full bucket that keeps half of the burst for interactive requests.
+     *
+     * @param name              name of the API, used in messages and statistics
+     * @param requestsPerSecond maximum sustained request rate
+     * @param burst             maximum number of requests that may be made at once after a quiet period
+     * @param maxWait           maximum time a caller waits for a token
+     * @param defaultBackoff    pause after a 429 response without a {@code Retry-After} header
+     * @param maxRetries        number of times a request is retried after a 429 response
+     */
+    public RateLimiter(String name, double requestsPerSecond, int burst, Duration maxWait,
+                       Duration defaultBackoff, int maxRetries) {
+        this(name, requestsPerSecond, burst, maxWait, defaultBackoff, maxRetries, 0.5);
+    }
+
+    /**
+     * Creates a rate limiter with a full bucket.
+     *
+     * @param name              name of the API, used in messages and statistics
+     * @param requestsPerSecond maximum sustained request rate
+     * @param burst             maximum number of requests that may be made at once after a quiet period
+     * @param maxWait           maximum time a caller waits for a token
+     * @param defaultBackoff    pause after a 429 response without a {@code Retry-After} header
+     * @param maxRetries        number of times a request is retried after a 429 response
+     * @param backgroundReserve fraction of the burst that background requests leave for interactive ones
+     */
+    public RateLimiter(String name, double requestsPerSecond, int burst, Duration maxWait,
+                       Duration defaultBackoff, int maxRetries, double backgroundReserve) {
+        if (requestsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond and burst must be positive");
+        }
+        if (backgroundReserve < 0 || backgroundReserve > 1) {
+            throw new IllegalArgumentException("backgroundReserve must be between 0 and 1");
+        }
+        this.name = name;
+        this.maxRate = requestsPerSecond;
+        this.burst = burst;
+        this.maxWait = maxWait;
+        this.defaultBackoff = defaultBackoff;
+        this.maxRetries = maxRetries;
+        this.backgroundReserve = backgroundReserve;
+        this.rate = requestsPerSecond;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.pausedUntilNanos = lastRefillNanos;
+    }
+
+    /**
+     * Runs a request once a token is available, retrying it after a {@code 429 Too Many Requests} response.
+     *
+     * @param call the request to run
+     * @param <T>  the result type
+     * @return the request's result
+     * @throws UpstreamUnavailableException             if no token becomes available within {@code maxWait}
+     * @throws HttpClientErrorException.TooManyRequests if the request is still throttled after all retries
+     */
+    public <T> T execute(Supplier<T> call) {
+        for (int attempt = 0; ; attempt++) {
+            acquire();
+            try {
+                T result = call.get();
+                onSuccess();
+                return result;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                HttpHeaders headers = e.getResponseHeaders();
+                onThrottled(parseRetryAfter(headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null));
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a background request only if the limiter has spare capacity, without waiting or retrying.
+     * A {@code 429 Too Many Requests} response still pauses and slows down all requests.
+     *
+     * @param call the request to run
+     * @param <T>  the result type
+     * @return the request's result
+     * @throws UpstreamUnavailableException             if there is no spare capacity right now
+     * @throws HttpClientErrorException.TooManyRequests if the request is throttled
+     */
+    public <T> T executeWithSpareCapacity(Supplier<T> call) {
+        if (!tryAcquireSpare()) {
+            throw new UpstreamUnavailableException(name, "No spare " + name + " capacity for background requests",
+                    Duration.ofNanos((long) (1e9 / maxRate)));
+        }
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            HttpHeaders headers = e.getResponseHeaders();
+            onThrottled(parseRetryAfter(headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null));
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a token for a background request if one is available without waiting and taking it
+     * leaves more than {@code backgroundReserve} of the burst for interactive requests.
+     * No token is taken while requests are paused or the rate is reduced after a 429 response.
+     *
+     * @return {@code true} if a token was taken
+     */
+    public synchronized boolean tryAcquireSpare() {
+        long now = System.nanoTime();
+        refill(now);
+        if (now < pausedUntilNanos || rate < maxRate || tokens - 1 < burst * backgroundReserve) {
+            backgroundDeclined.incrementAndGet();
+            return false;
+        }
+        tokens -= 1;
+        acquired.incrementAndGet();
+        backgroundAcquired.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Takes a token, waiting for one if necessary.
+     *
+     * @throws UpstreamUnavailableException if no token becomes available within {@code maxWait}
+     */
+    public void acquire() {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            delayed.incrementAndGet();
+            sleep(waitNanos);
+        }
+        // A 429 received while this caller was waiting pauses it as well
+        long remainingPause;
+        while ((remainingPause = remainingPause()) > 0) {
+            checkDeadline(deadline, remainingPause);
+            sleep(remainingPause);
+        }
+    }
+
+    /**
+     * Takes a token without blocking the calling thread, for requests made with an asynchronous client.
+     * The returned future completes once the token may be used; no thread is held while waiting.
+     * Cancelling the future gives up the wait, but not the token.
+     *
+     * @return a future that completes when the request may be made, or completes exceptionally with
+     *         an {@link UpstreamUnavailableException} if no token becomes available within {@code maxWait}
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        long waitNanos;
+        try {
+            waitNanos = reserve();
+        } catch (UpstreamUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (waitNanos > 0) {
+            delayed.incrementAndGet();
+        }
+        return after(waitNanos).thenCompose(ignored -> awaitPause(deadline));
+    }
+
+    /**
+     * Records a successful request and raises a reduced rate back towards the configured maximum.
+     */
+    public synchronized void onSuccess() {
+        if (rate < maxRate) {
+            rate = Math.min(maxRate, rate + maxRate / RATE_RECOVERY_STEPS);
+        }
+    }
+
+    /**
+     * Records a {@code 429 Too Many Requests} response: pauses all requests and halves the rate.
+     *
+     * @param retryAfter how long the API asked to wait, or {@code null} to use the default backoff
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        throttled.incrementAndGet();
+        rate = Math.max(maxRate * MIN_RATE_FACTOR, rate / 2);
+
+        long resumeAt = System.nanoTime() + (retryAfter != null ? retryAfter : defaultBackoff).toNanos();
+        pausedUntilNanos = Math.max(pausedUntilNanos, resumeAt);
+        // No tokens accumulate during the pause, so requests resume at the reduced rate instead of in a burst
+        lastRefillNanos = Math.max(lastRefillNanos, pausedUntilNanos);
+        tokens = Math.min(tokens, 0);
+        log.warn("{} rate limit hit, pausing requests and lowering rate to {}/s", name, String.format("%.2f", rate));
+    }
+
+    /**
+     * Returns a snapshot of the limiter's rate and counters.
+     *
+     * @return a map with current and maximum rate, burst, and request counters
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requestsPerSecond", rate);
+        stats.put("maxRequestsPerSecond", maxRate);
+        stats.put("burst", (int) burst);
+        stats.put("acquired", acquired.get());
+        stats.put("delayed", delayed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("throttled", throttled.get());
+        stats.put("backgroundAcquired", backgroundAcquired.get());
+        stats.put("backgroundDeclined", backgroundDeclined.get());
+        stats.put("pausedForMillis", Math.max(0, pausedUntilNanos - System.nanoTime()) / 1_000_000);
+        return stats;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header given either in seconds or as an HTTP date.
+     *
+     * @param value the header value, may be {@code null}
+     * @return the delay, or {@code null} if the header is absent or invalid
+     */
+    public static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Duration delay = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Adds the tokens accumulated since the last refill, up to the burst size.
+     */
+    private void refill(long now) {
+        if (now > lastRefillNanos) {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * rate);
+            lastRefillNanos = now;
+        }
+    }
+
+    /**
+     * Takes the next token, which may only be used once the returned time has passed.
+     *
+     * @return how long the caller has to wait before using the token, in nanoseconds
+     * @throws UpstreamUnavailableException if that is longer than {@code maxWait}
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        long waitNanos = Math.max(0, lastRefillNanos - now) + (tokens >= 1 ? 0 : (long) ((1 - tokens) / rate * 1e9));
+        if (waitNanos > maxWait.toNanos()) {
+            rejected.incrementAndGet();
+            throw new UpstreamUnavailableException(name, "Rate limit for " + name + " reached",
+                    Duration.ofNanos(waitNanos));
+        }
+        tokens -= 1;
+        acquired.incrementAndGet();
+        return waitNanos;
+    }
+
+    /**
+     * Rejects a caller that would still be paused after its deadline.
+     *
+     * @throws UpstreamUnavailableException if the pause ends after the deadline
+     */
+    private void checkDeadline(long deadline, long remainingPause) {
+        if (System.nanoTime() + remainingPause > deadline) {
+            rejected.incrementAndGet();
+            throw new UpstreamUnavailableException(name, "Rate limit for " + name + " reached",
+                    Duration.ofNanos(remainingPause));
+        }
+    }
+
+    /**
+     * Returns a future that completes once requests are no longer paused after a 429 response.
+     */
+    private CompletableFuture<Void> awaitPause(long deadline) {
+        long remainingPause = remainingPause();
+        if (remainingPause <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            checkDeadline(deadline, remainingPause);
+        } catch (UpstreamUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return after(remainingPause).thenCompose(ignored -> awaitPause(deadline));
+    }
+
+    /**
+     * Returns a future that completes after the given time, without holding a thread meanwhile.
+     */
+    private static CompletableFuture<Void> after(long nanos) {
+        if (nanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Returns how long requests are still paused after a 429 response.
+     */
+    private synchronized long remainingPause() {
+        return pausedUntilNanos - System.nanoTime();
+    }
+
+    /**
+     * Sleeps for the given time, turning an interrupt into a rejected request.
+     */
+    private void sleep(long nanos) {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException(name, "Interrupted while waiting for the " + name + " rate limit",
+                    Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.model.RawResponse;
+import com.example.moviefinder.repository.RawResponseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent cache of raw upstream API responses in the application database.
+ * <p>
+ * {@link OmdbClient} and {@link TmdbClient} store every successful response here, gzip-compressed
+ * and keyed by API and request, and consult it after their in-memory cache and before the network.
+ * This keeps responses across restarts, serves them while an API is down, and lets stored movies be
+ * rebuilt from their original responses without spending upstream quota.
+ * <p>
+ * In offline mode ({@code moviefinder.offline=true}) the clients never call the APIs and serve
+ * only what is stored here, regardless of its age.
+ */
+@Component
+public class RawResponseStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RawResponseStore.class);
+
+    private final RawResponseRepository repository;
+    private final boolean enabled;
+    private final boolean offline;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates the store.
+     *
+     * @param repository repository of the stored responses
+     * @param enabled    whether responses are stored and read
+     * @param offline    whether the clients serve only stored responses; stored responses are read even if not enabled
+     */
+    public RawResponseStore(RawResponseRepository repository,
+                            @Value("${moviefinder.raw-cache.enabled:false}") boolean enabled,
+                            @Value("${moviefinder.offline:false}") boolean offline) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.offline = offline;
+    }
+
+    /**
+     * Returns whether the clients must serve only stored responses and never call the APIs.
+     *
+     * @return {@code true} in offline mode
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Looks up the stored response of a request.
+     *
+     * @param upstream the API name ({@code omdb} or {@code tmdb})
+     * @param key      the request's cache key
+     * @return the stored response, or {@code null} if there is none, the store is disabled or cannot be read
+     */
+    public StoredResponse find(String upstream, String key) {
+        if (!enabled && !offline) {
+            return null;
+        }
+        try {
+            StoredResponse stored = repository.findById(id(upstream, key))
+                    .map(response -> new StoredResponse(decompress(response.getPayload()), response.getFetchedAt()))
+                    .orElse(null);
+            (stored != null ? hits : misses).incrementAndGet();
+            return stored;
+        } catch (DataAccessException | UncheckedIOException e) {
+            failures.incrementAndGet();
+            log.warn("Could not read stored {} response {}", upstream, key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response of a request, replacing an earlier one. Failures are logged and ignored,
+     * since the response has already been fetched.
+     *
+     * @param upstream the API name ({@code omdb} or {@code tmdb})
+     * @param key      the request's cache key
+     * @param payload  the raw response body
+     */
+    public void save(String upstream, String key, String payload) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            byte[] compressed = compress(payload);
+            repository.save(new RawResponse(id(upstream, key), upstream, Instant.now(),
+                    payload.getBytes(StandardCharsets.UTF_8).length, compressed.length, compressed));
+            writes.incrementAndGet();
+        } catch (DataAccessException e) {
+            failures.incrementAndGet();
+            log.warn("Could not store {} response {}", upstream, key, e);
+        }
+    }
+
+    /**
+     * Returns the store's counters and the number and size of the stored responses per API.
+     *
+     * @return a map with the mode, hit, miss, write and failure counters and the stored sizes
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("offline", offline);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("writes", writes.get());
+        stats.put("failures", failures.get());
+        if (enabled || offline) {
+            for (Object[] row : repository.sizesByUpstream()) {
+                Map<String, Object> sizes = new LinkedHashMap<>();
+                sizes.put("responses", row[1]);
+                sizes.put("compressedBytes", row[2]);
+                sizes.put("uncompressedBytes", row[3]);
+                stats.put((String) row[0], sizes);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Builds the ID of a stored response.
+     *
+     * @param upstream the API name
+     * @param key      the request's cache key
+     * @return the ID, e.g. {@code omdb:t=inception}
+     */
+    private String id(String upstream, String key) {
+        return upstream + ":" + key;
+    }
+
+    /**
+     * Compresses a response body with gzip.
+     *
+     * @param payload the response body
+     * @return the compressed UTF-8 bytes
+     */
+    static byte[] compress(String payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses a response body compressed by {@link #compress(String)}.
+     *
+     * @param compressed the compressed bytes
+     * @return the response body
+     * @throws UncheckedIOException if the bytes are not valid gzip data
+     */
+    static String decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A stored response and when it was fetched.
+     *
+     * @param payload   the raw response body
+     * @param fetchedAt when the response was fetched
+     */
+    public record StoredResponse(String payload, Instant fetchedAt) {
+
+        /**
+         * Returns how much longer the response is valid for the given TTL.
+         *
+         * @param ttl how long a response is valid after it was fetched
+         * @return the remaining time, zero or negative once expired
+         */
+        public Duration remainingTtl(Duration ttl) {
+            return Duration.between(Instant.now(), fetchedAt.plus(ttl));
+        }
+
+        /**
+         * Returns whether the response is still valid for the given TTL.
+         *
+         * @param ttl how long a response is valid after it was fetched
+         * @return {@code true} if the response has not expired
+         */
+        public boolean isFresh(Duration ttl) {
+            return remainingTtl(ttl).compareTo(Duration.ZERO) > 0;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.moviefinder.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded, in-memory cache for raw upstream API responses.
+ * <p>
+ * Entries are kept in least-recently-used order and each entry carries its own expiry time,
+ * so callers can choose a different TTL per resource type (or a short one for negative results).
+ * Once the cache holds {@code maxEntries} items, the least recently used entry is evicted.
+ * <p>
+ * Expired entries are no longer returned by {@link #get(Object)}, but are kept until they are
+ * evicted or replaced, so {@link #getStale(Object)} can still serve them while an upstream API is down.
+ *
+ * @param <K> the cache key type
+ * @param <V> the cached value type
+ */
+public class ResponseCache<K, V> {
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<K, Entry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+
+    /**
+     * Creates a cache holding at most {@code maxEntries} items, using the system clock.
+     *
+     * @param maxEntries maximum number of entries kept before the least recently used is evicted
+     */
+    public ResponseCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a cache holding at most {@code maxEntries} items, using the given clock for expiry.
+     *
+     * @param maxEntries maximum number of entries kept before the least recently used is evicted
+     * @param clock      clock used to compute and check entry expiry
+     */
+    public ResponseCache(int maxEntries, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ResponseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the key, or {@code null} if it is absent or expired.
+     *
+     * @param key the cache key
+     * @return the cached value, or {@code null} on a miss
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (!clock.instant().isBefore(entry.expiresAt())) {
+            if (!entry.expired()) {
+                entries.put(key, new Entry<>(entry.value(), entry.expiresAt(), true));
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value();
+    }
+
+    /**
+     * Returns the cached value for the key even if it has expired.
+     * Meant as a fallback when the value cannot be fetched again.
+     *
+     * @param key the cache key
+     * @return the cached value, or {@code null} if it was never cached or has been evicted
+     */
+    public synchronized V getStale(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        staleHits.incrementAndGet();
+        return entry.value();
+    }
+
+    /**
+     * Stores a value under the given key for the given time-to-live.
+     * A zero or negative TTL disables caching for this value.
+     *
+     * @param key   the cache key
+     * @param value the value to cache
+     * @param ttl   how long the value stays valid
+     */
+    public synchronized void put(K key, V value, Duration ttl) {
+        if (value == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, clock.instant().plus(ttl), false));
+    }
+
+    /**
+     * Removes the entry for the given key, if any, including an expired one.
+     *
+     * @param key the cache key
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries. Counters are left untouched.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns a snapshot of the cache counters.
+     *
+     * @return a map with size, capacity, hits, misses, hit ratio, evictions, expirations and stale hits
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        long lookups = hits.get() + misses.get();
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits.get() / lookups);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("staleHits", staleHits.get());
+        return stats;
+    }
+
+    private record Entry<V>(V value, Instant expiresAt, boolean expired) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.moviefinder.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ * <p>
+ * The first caller for a key runs the supplier; callers arriving while it is still running
+ * wait for and share its result (or its exception). Once the call completes, the key is released,
+ * so later calls run the supplier again.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the supplier for the key, or joins a call for the same key that is already running.
+     *
+     * @param key      the key identifying equivalent calls
+     * @param supplier the work to run if no call for the key is in flight
+     * @return the result of the (possibly shared) call
+     * @throws RuntimeException the exception thrown by the (possibly shared) call
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V result = supplier.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Registers a call for the key that the caller completes itself, or returns the call for the same
+     * key that is already running. Lets work that finishes asynchronously (e.g. as part of a batch)
+     * be shared with {@link #execute} callers. The key is released once the registered call completes,
+     * so the caller must always complete it.
+     *
+     * @param key  the key identifying equivalent calls
+     * @param call the call to register
+     * @return {@code call} if it was registered, otherwise the call for the key that is already running
+     */
+    public CompletableFuture<V> register(K key, CompletableFuture<V> call) {
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return existing;
+        }
+        call.whenComplete((result, e) -> inFlight.remove(key, call));
+        return call;
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return the number of keys with a running call
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.moviefinder.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates smaller variants (e.g. {@code thumb}, {@code medium}) of downloaded images in the background.
+ * <p>
+ * Variants are scaled down to a configured width, encoded as compressed JPEG and saved in the
+ * {@link ImageStore} next to the original. Generation runs on a small bounded worker pool; when that
+ * pool is saturated the work is skipped and picked up again the next time the variant is requested.
+ */
+@Component
+public class ThumbnailGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailGenerator.class);
+
+    /**
+     * Name of the unscaled image, always available.
+     */
+    public static final String ORIGINAL = "original";
+
+    private final ImageStore imageStore;
+    private final Executor executor;
+    private final Map<String, Integer> widths;
+    private final float quality;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs the ThumbnailGenerator with the configured variant sizes.
+     *
+     * @param imageStore store holding the originals and receiving the variants
+     * @param executor   bounded worker pool running the generation
+     * @param sizes      variant names and widths in pixels, e.g. {@code thumb=185,medium=500}
+     * @param quality    JPEG quality between 0 and 1
+     */
+    public ThumbnailGenerator(ImageStore imageStore,
+                              @Qualifier("thumbnailExecutor") Executor executor,
+                              @Value("${moviefinder.thumbnails.sizes:thumb=185,medium=500}") String sizes,
+                              @Value("${moviefinder.thumbnails.quality:0.8}") float quality) {
+        this.imageStore = imageStore;
+        this.executor = executor;
+        this.widths = parseSizes(sizes);
+        this.quality = quality;
+    }
+
+    /**
+     * Returns the names of the available sizes, including {@link #ORIGINAL}.
+     *
+     * @return the size names
+     */
+    public Set<String> sizes() {
+        Set<String> sizes = new LinkedHashSet<>(widths.keySet());
+        sizes.add(ORIGINAL);
+        return sizes;
+    }
+
+    /**
+     * Schedules generation of all variants of a stored image that do not exist yet.
+     *
+     * @param originalKey the store key of the original image
+     */
+    public void scheduleVariants(String originalKey) {
+        widths.keySet().forEach(variant -> scheduleVariant(originalKey, variant));
+    }
+
+    /**
+     * Schedules generation of one variant of a stored image, unless it exists or is already scheduled.
+     *
+     * @param originalKey the store key of the original image
+     * @param variant     the variant name
+     */
+    public void scheduleVariant(String originalKey, String variant) {
+        if (!widths.containsKey(variant)) {
+            return;
+        }
+        String variantKey = imageStore.variantKey(originalKey, variant);
+        if (imageStore.resolve(variantKey).isPresent() || !pending.add(variantKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(originalKey, variant);
+                } finally {
+                    pending.remove(variantKey);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            pending.remove(variantKey); // pool saturated; retried on the next request for this variant
+        }
+    }
+
+    /**
+     * Scales the original image down to the variant's width and saves it as JPEG.
+     * Images that are already narrower than the variant are not upscaled.
+     *
+     * @param originalKey the store key of the original image
+     * @param variant     the variant name
+     */
+    private void generate(String originalKey, String variant) {
+        Optional<Path> original = imageStore.resolve(originalKey);
+        if (original.isEmpty()) {
+            return;
+        }
+
+        Path tempFile = null;
+        try {
+            BufferedImage source = ImageIO.read(original.get().toFile());
+            if (source == null) {
+                return; // not a readable image format
+            }
+
+            int width = Math.min(widths.get(variant), source.getWidth());
+            int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(source, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            tempFile = imageStore.createTempFile();
+            writeJpeg(scaled, tempFile);
+            imageStore.storeVariant(originalKey, variant, tempFile);
+        } catch (IOException e) {
+            log.warn("Failed to generate {} variant of {}", variant, originalKey, e);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Writes an image as JPEG with the configured quality.
+     *
+     * @param image  the image to write
+     * @param target the file to write to
+     * @throws IOException if encoding or writing fails
+     */
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Deletes a leftover temporary file, ignoring failures.
+     */
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Nothing left to clean up
+        }
+    }
+
+    /**
+     * Parses a size specification such as {@code thumb=185,medium=500}.
+     *
+     * @param sizes the size specification
+     * @return variant names mapped to widths, in the given order
+     * @throws IllegalArgumentException if an entry is malformed
+     */
+    private static Map<String, Integer> parseSizes(String sizes) {
+        Map<String, Integer> widths = new LinkedHashMap<>();
+        for (String entry : sizes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2 || !parts[0].matches("[a-z0-9]+") || parts[0].equals(ORIGINAL)) {
+                throw new IllegalArgumentException("Invalid thumbnail size: " + entry);
+            }
+            widths.put(parts[0], Integer.parseInt(parts[1].trim()));
+        }
+        return widths;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.moviefinder.util;
+
+import java.util.Locale;
+
+/**
+ * Normalizes movie titles so that equivalent spellings map to the same key,
+ * e.g. {@code "  The  Matrix "} and {@code "the matrix"}.
+ */
+public final class TitleNormalizer {
+
+    private TitleNormalizer() {
+    }
+
+    /**
+     * Trims the title, collapses inner whitespace and lower-cases it.
+     *
+     * @param title the title to normalize
+     * @return the normalized title, or an empty string for {@code null}
+     */
+    public static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        return title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,35 +1,106 @@
 package com.example.moviefinder.util;
 
 import com.example.moviefinder.exceptions.TmdbApiException;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 /**
  * Client component for interacting with The Movie Database (TMDb) API.
  * <p>
  * Provides methods to search for movies and fetch additional movie-related data (e.g., images, keywords, providers).
  * Wraps network and API-level failures in {@link TmdbApiException}.
+ * <p>
+ * Raw responses are kept in a bounded {@link ResponseCache} with a separate TTL per resource type,
+ * since e.g. watch providers change far more often than keywords.
+ * <p>
+ * Calls are paced by a {@link RateLimiter} before they enter an {@link UpstreamGuard}, so waiting for a
+ * token never holds a bulkhead slot. While TMDb is unreachable, expired cached
+ * responses are served if there are any.
+ * <p>
+ * The {@code refresh} variants are meant for background refreshes: they always ask TMDb, but only
+ * when the rate limiter has spare capacity, so they never delay interactive lookups.
+ * <p>
+ * Successful responses are also kept in the persistent {@link RawResponseStore}, which is consulted
+ * after the in-memory cache. In offline mode, only stored responses are served.
  */
 @Component
 public class TmdbClient {
 
+    private static final Logger log = LoggerFactory.getLogger(TmdbClient.class);
+
+    /**
+     * The watch providers detail resource, which changes far more often than the other detail resources.
+     */
+    public static final String WATCH_PROVIDERS = "watch/providers";
+
+    /**
+     * Detail resources requested together through {@code append_to_response}.
+     */
+    public static final List<String> COMBINED_DETAIL_TYPES = List.of("images", "keywords", "similar", WATCH_PROVIDERS);
+
+    private static final String UPSTREAM = "tmdb";
+
     private final RestTemplate restTemplate;
     private final String tmdbApiKey;
+    private final ResponseCache<String, String> cache;
+    private final UpstreamGuard guard;
+    private final RateLimiter rateLimiter;
+    private final RawResponseStore rawResponseStore;
     private boolean forceFailure = false; // For test simulation purposes only
 
+    @Value("${tmdb.cache.ttl.search:PT6H}")
+    private Duration searchTtl = Duration.ofHours(6);
+
+    @Value("${tmdb.cache.ttl.images:P1D}")
+    private Duration imagesTtl = Duration.ofDays(1);
+
+    @Value("${tmdb.cache.ttl.keywords:P7D}")
+    private Duration keywordsTtl = Duration.ofDays(7);
+
+    @Value("${tmdb.cache.ttl.similar:P1D}")
+    private Duration similarTtl = Duration.ofDays(1);
+
+    @Value("${tmdb.cache.ttl.watch-providers:PT1H}")
+    private Duration watchProvidersTtl = Duration.ofHours(1);
+
     /**
      * Constructs a new {@code TmdbClient} using the provided {@link RestTemplate} and TMDb API key.
      *
-     * @param restTemplate the RestTemplate used for HTTP calls
-     * @param tmdbApiKey   the API key injected from application properties
+     * @param restTemplate     the RestTemplate used for HTTP calls
+     * @param tmdbApiKey       the API key injected from application properties
+     * @param cacheMaxEntries  maximum number of responses kept in the cache
+     * @param guard            circuit breaker and bulkhead for the TMDb API
+     * @param rateLimiter      rate limiter for the TMDb API key
+     * @param rawResponseStore persistent cache of raw responses
      */
     public TmdbClient(RestTemplate restTemplate,
-                      @Value("${tmdb.api.key}") String tmdbApiKey) {
+                      @Value("${tmdb.api.key}") String tmdbApiKey,
+                      @Value("${tmdb.cache.max-entries:2000}") int cacheMaxEntries,
+                      @Qualifier("tmdbGuard") UpstreamGuard guard,
+                      @Qualifier("tmdbRateLimiter") RateLimiter rateLimiter,
+                      RawResponseStore rawResponseStore) {
         this.restTemplate = restTemplate;
         this.tmdbApiKey = tmdbApiKey;
+        this.cache = new ResponseCache<>(cacheMaxEntries);
+        this.guard = guard;
+        this.rateLimiter = rateLimiter;
+        this.rawResponseStore = rawResponseStore;
     }
 
     /**
@@ -45,37 +116,328 @@ public class TmdbClient {
      *
      * @param title the title of the movie to search for
      * @return a {@link JSONObject} representing the TMDb API response
-     * @throws TmdbApiException if the request fails or if failure simulation is enabled
+     * @throws TmdbApiException             if the request fails or if failure simulation is enabled
+     * @throws UpstreamUnavailableException if TMDb is unavailable and no cached response exists
      */
     public JSONObject searchMovie(String title) {
+        return searchMovie(title, FetchMode.INTERACTIVE);
+    }
+
+    /**
+     * Performs a movie search query for a background refresh, bypassing the cache.
+     * The request is only made if the TMDb rate limiter has spare capacity.
+     *
+     * @param title the title of the movie to search for
+     * @return a {@link JSONObject} representing the TMDb API response
+     * @throws TmdbApiException             if the request fails or if failure simulation is enabled
+     * @throws UpstreamUnavailableException if TMDb is unavailable or has no spare capacity
+     */
+    public JSONObject refreshSearch(String title) {
+        return searchMovie(title, FetchMode.BACKGROUND);
+    }
+
+    /**
+     * Returns the cached search result for a title, however old, without calling TMDb.
+     *
+     * @param title the title of the movie to search for
+     * @return a {@link JSONObject} representing the TMDb API response
+     * @throws TmdbApiException             if failure simulation is enabled
+     * @throws UpstreamUnavailableException if no response is cached for the title
+     */
+    public JSONObject storedSearch(String title) {
+        return searchMovie(title, FetchMode.STORED_ONLY);
+    }
+
+    /**
+     * Performs a movie search query in the given fetch mode, see {@link #fetch}.
+     *
+     * @param title the title of the movie to search for
+     * @param mode  how the response may be obtained
+     * @return a {@link JSONObject} representing the TMDb API response
+     */
+    private JSONObject searchMovie(String title, FetchMode mode) {
         if (forceFailure) {
             throw new TmdbApiException("Simulated TMDb failure for testing");
         }
 
         try {
             String url = "https://api.themoviedb.org/3/search/movie?api_key=" + tmdbApiKey + "&query=" + title;
-            String response = restTemplate.getForObject(url, String.class);
-            return new JSONObject(response);
+            return fetch("search:" + TitleNormalizer.normalize(title), url, searchTtl, JSONObject::new, mode);
         } catch (RestClientException e) {
             throw new TmdbApiException("Failed to fetch data from TMDb for title: " + title, e);
         }
     }
 
     /**
-     * Fetches detailed data for a specific movie ID from the TMDb API.
+     * Fetches a movie's details together with its images, keywords, similar movies and watch providers
+     * in a single request, using TMDb's {@code append_to_response} parameter.
+     * <p>
+     * The response body is kept as a string, since that is what the caches store, but it is read with the
+     * token-level {@link TmdbDetailsParser}, which extracts only the values needed to build a movie instead
+     * of materializing a tree of the whole (often several hundred KB) document.
+     * The combined response is cached with the shortest TTL among images, keywords and similar movies,
+     * so keywords are refreshed together with the images and similar movies. The watch providers read
+     * from it are also cached on their own, with their much shorter TTL. When only they have expired,
+     * just the small watch providers resource is requested again.
+     *
+     * @param id the TMDb movie ID
+     * @return the extracted backdrops, keywords, similar titles and watch providers
+     * @throws TmdbApiException             if the request fails
+     * @throws UpstreamUnavailableException if TMDb is unavailable and no cached response exists
+     */
+    public TmdbDetails fetchCombinedDetails(int id) {
+        return fetchCombinedDetails(id, FetchMode.INTERACTIVE);
+    }
+
+    /**
+     * Fetches a movie's combined details for a background refresh, bypassing the cache.
+     * The request is only made if the TMDb rate limiter has spare capacity.
+     *
+     * @param id the TMDb movie ID
+     * @return the extracted backdrops, keywords, similar titles and watch providers
+     * @throws TmdbApiException             if the request fails
+     * @throws UpstreamUnavailableException if TMDb is unavailable or has no spare capacity
+     */
+    public TmdbDetails refreshCombinedDetails(int id) {
+        return fetchCombinedDetails(id, FetchMode.BACKGROUND);
+    }
+
+    /**
+     * Returns the cached combined details of a movie, however old, without calling TMDb.
+     *
+     * @param id the TMDb movie ID
+     * @return the extracted backdrops, keywords, similar titles and watch providers
+     * @throws UpstreamUnavailableException if no response is cached for the movie
+     */
+    public TmdbDetails storedCombinedDetails(int id) {
+        return fetchCombinedDetails(id, FetchMode.STORED_ONLY);
+    }
+
+    /**
+     * Fetches a movie's combined details in the given fetch mode, see {@link #fetch}.
      *
      * @param id   the TMDb movie ID
-     * @param type the type of detail to fetch (e.g., {@code images}, {@code keywords}, {@code similar}, {@code watch/providers})
-     * @return a {@link JSONObject} containing the requested movie detail
-     * @throws TmdbApiException if the request fails
+     * @param mode how the response may be obtained
+     * @return the extracted backdrops, keywords, similar titles and watch providers
      */
-    public JSONObject fetchMovieDetails(int id, String type) {
+    private TmdbDetails fetchCombinedDetails(int id, FetchMode mode) {
+        String appended = String.join(",", COMBINED_DETAIL_TYPES);
+        String cacheKey = id + "?append_to_response=" + appended;
+        String providersKey = id + "/" + WATCH_PROVIDERS;
+        Duration ttl = COMBINED_DETAIL_TYPES.stream()
+                .filter(type -> !type.equals(WATCH_PROVIDERS))
+                .map(this::ttlFor)
+                .min(Duration::compareTo)
+                .orElse(Duration.ZERO);
         try {
-            String url = "https://api.themoviedb.org/3/movie/" + id + "/" + type + "?api_key=" + tmdbApiKey;
-            String response = restTemplate.getForObject(url, String.class);
-            return new JSONObject(response);
+            if (mode != FetchMode.BACKGROUND) {
+                TmdbDetails cached = cached(cacheKey, ttl, TmdbDetailsParser::parse, mode);
+                if (cached != null) {
+                    return withCurrentWatchProviders(id, cached, mode);
+                }
+            }
+
+            String url = "https://api.themoviedb.org/3/movie/" + id + "?api_key=" + tmdbApiKey
+                    + "&append_to_response=" + appended;
+            return request(cacheKey, url, ttl, TmdbDetailsParser::parse, mode, details -> {
+                String providers = TmdbDetailsParser.writeWatchProviders(details.watchProviders());
+                cache.put(providersKey, providers, ttlFor(WATCH_PROVIDERS));
+                rawResponseStore.save(UPSTREAM, providersKey, providers);
+            });
         } catch (RestClientException e) {
-            throw new TmdbApiException("Failed to fetch " + type + " from TMDb for id: " + id, e);
+            throw new TmdbApiException("Failed to fetch combined details from TMDb for id: " + id, e);
+        }
+    }
+
+    /**
+     * Replaces the watch providers of cached combined details with the separately cached ones,
+     * requesting them again if they have expired. If TMDb cannot be reached for them, the (older)
+     * providers of the combined response are kept.
+     *
+     * @param id      the TMDb movie ID
+     * @param details the details read from the cached combined response
+     * @param mode    how the watch providers may be obtained
+     * @return the details with current watch providers
+     */
+    private TmdbDetails withCurrentWatchProviders(int id, TmdbDetails details, FetchMode mode) {
+        String url = "https://api.themoviedb.org/3/movie/" + id + "/" + WATCH_PROVIDERS + "?api_key=" + tmdbApiKey;
+        try {
+            List<String> providers = fetch(id + "/" + WATCH_PROVIDERS, url, ttlFor(WATCH_PROVIDERS),
+                    TmdbDetailsParser::parseWatchProviders, mode);
+            return new TmdbDetails(details.backdropPaths(), details.keywords(), details.similarTitles(), providers);
+        } catch (UpstreamUnavailableException | RestClientException | TmdbApiException e) {
+            log.warn("TMDb watch providers unavailable for {}, keeping the cached ones: {}", id, e.getMessage());
+            return details;
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counters of the response cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public Map<String, Object> cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the state and counters of the TMDb circuit breaker and bulkhead.
+     *
+     * @return a snapshot of the guard statistics
+     */
+    public Map<String, Object> guardStats() {
+        return guard.stats();
+    }
+
+    /**
+     * Returns the current rate and counters of the TMDb rate limiter.
+     *
+     * @return a snapshot of the rate limiter statistics
+     */
+    public Map<String, Object> rateLimiterStats() {
+        return rateLimiter.stats();
+    }
+
+    /**
+     * Returns a TMDb response from the in-memory cache or the {@link RawResponseStore}, or fetches it.
+     * If TMDb cannot be reached, an expired cached response is returned instead, if there is one.
+     * A fetched response is only cached once it has been parsed successfully.
+     * <p>
+     * A background request skips the caches and the stale fallback, and is only made if the
+     * rate limiter has spare capacity; its response still replaces the cached one. A stored-only
+     * request, and every request in offline mode, is served from the caches regardless of age
+     * and never calls TMDb.
+     *
+     * @param cacheKey the cache key of the response
+     * @param url      the URL to fetch
+     * @param ttl      how long a fetched response is cached
+     * @param parser   converts the raw response into the result
+     * @param mode     how the response may be obtained
+     * @param <T>      the result type
+     * @return the parsed response
+     * @throws RestClientException          if the request fails and no cached response exists
+     * @throws UpstreamUnavailableException if TMDb is unavailable and no usable cached response exists
+     */
+    private <T> T fetch(String cacheKey, String url, Duration ttl, Function<String, T> parser, FetchMode mode) {
+        if (mode != FetchMode.BACKGROUND) {
+            T cached = cached(cacheKey, ttl, parser, mode);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return request(cacheKey, url, ttl, parser, mode, result -> {
+        });
+    }
+
+    /**
+     * Returns a TMDb response from the in-memory cache, or from the {@link RawResponseStore} if it is
+     * still fresh there. In stored-only and offline mode, a stored response of any age is returned.
+     *
+     * @param cacheKey the cache key of the response
+     * @param ttl      how long a response is fresh
+     * @param parser   converts the raw response into the result
+     * @param mode     how the response may be obtained
+     * @param <T>      the result type
+     * @return the parsed response, or {@code null} if no usable response is cached
+     */
+    private <T> T cached(String cacheKey, Duration ttl, Function<String, T> parser, FetchMode mode) {
+        boolean storedOnly = mode == FetchMode.STORED_ONLY || rawResponseStore.isOffline();
+        String cached = cache.get(cacheKey);
+        if (cached != null) {
+            return parser.apply(cached);
+        }
+        RawResponseStore.StoredResponse stored = rawResponseStore.find(UPSTREAM, cacheKey);
+        if (stored != null && (storedOnly || stored.isFresh(ttl))) {
+            T result = parser.apply(stored.payload());
+            cache.put(cacheKey, stored.payload(), stored.remainingTtl(ttl));
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Requests a TMDb response and caches it, see {@link #fetch}. If TMDb cannot be reached, an expired
+     * cached response is returned instead, unless this is a background request.
+     *
+     * @param cacheKey the cache key of the response
+     * @param url      the URL to fetch
+     * @param ttl      how long the fetched response is cached
+     * @param parser   converts the raw response into the result
+     * @param mode     how the response may be obtained
+     * @param fetched  called with the result of a response actually fetched from TMDb (not a stale one)
+     * @param <T>      the result type
+     * @return the parsed response
+     * @throws RestClientException          if the request fails and no cached response exists
+     * @throws UpstreamUnavailableException if TMDb is unavailable and no usable cached response exists
+     */
+    private <T> T request(String cacheKey, String url, Duration ttl, Function<String, T> parser, FetchMode mode,
+                          Consumer<T> fetched) {
+        if (mode == FetchMode.STORED_ONLY || rawResponseStore.isOffline()) {
+            throw new UpstreamUnavailableException(UPSTREAM, "No stored TMDb response for " + cacheKey, Duration.ZERO);
+        }
+
+        try {
+            String response = mode == FetchMode.BACKGROUND
+                    ? rateLimiter.executeWithSpareCapacity(() -> guard.execute(() -> restTemplate.getForObject(url, String.class)))
+                    : rateLimiter.execute(() -> guard.execute(() -> restTemplate.getForObject(url, String.class)));
+            T result = parse(parser, response, cacheKey);
+            cache.put(cacheKey, response, ttl);
+            rawResponseStore.save(UPSTREAM, cacheKey, response);
+            fetched.accept(result);
+            return result;
+        } catch (UpstreamUnavailableException | ResourceAccessException | HttpServerErrorException
+                 | TmdbApiException e) {
+            // A malformed body is handled like a server error
+            String stale = null;
+            if (mode != FetchMode.BACKGROUND) {
+                stale = cache.getStale(cacheKey);
+                RawResponseStore.StoredResponse stored = stale == null ? rawResponseStore.find(UPSTREAM, cacheKey) : null;
+                if (stored != null) {
+                    stale = stored.payload();
+                }
+            }
+            if (stale == null) {
+                throw e;
+            }
+            log.warn("TMDb unavailable, serving stale response for {}: {}", cacheKey, e.getMessage());
+            return parser.apply(stale);
+        }
+    }
+
+    /**
+     * Parses a fetched TMDb response body.
+     *
+     * @param parser   converts the raw response into the result
+     * @param response the response body
+     * @param cacheKey the cache key of the response (used in the error message)
+     * @param <T>      the result type
+     * @return the parsed response
+     * @throws TmdbApiException if the body is empty or cannot be parsed
+     */
+    private static <T> T parse(Function<String, T> parser, String response, String cacheKey) {
+        if (response == null) {
+            throw new TmdbApiException("Empty TMDb response for " + cacheKey);
         }
+        try {
+            return parser.apply(response);
+        } catch (JSONException e) {
+            throw new TmdbApiException("Invalid TMDb response for " + cacheKey, e);
+        }
+    }
+
+    /**
+     * Resolves the cache TTL for a TMDb detail resource type.
+     *
+     * @param type the detail type (e.g., {@code images}, {@code watch/providers})
+     * @return the configured TTL, or {@link Duration#ZERO} for unknown types (not cached)
+     */
+    private Duration ttlFor(String type) {
+        return switch (type) {
+            case "images" -> imagesTtl;
+            case "keywords" -> keywordsTtl;
+            case "similar" -> similarTtl;
+            case WATCH_PROVIDERS -> watchProvidersTtl;
+            default -> Duration.ZERO;
+        };
     }
 }
\ No newline at end of file
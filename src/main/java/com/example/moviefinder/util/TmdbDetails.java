@@ -0,0 +1,20 @@
+package com.example.moviefinder.util;
+
+import java.util.List;
+
+/**
+ * The parts of a combined TMDb details response that are used to build a movie.
+ *
+ * @param backdropPaths  TMDb file paths of the first backdrops
+ * @param keywords       names of the first keywords
+ * @param similarTitles  titles of the first similar movies
+ * @param watchProviders names of the US flatrate (subscription) providers
+ */
+public record TmdbDetails(List<String> backdropPaths, List<String> keywords,
+                          List<String> similarTitles, List<String> watchProviders) {
+
+    /**
+     * Details without any TMDb data, used when TMDb is unavailable.
+     */
+    public static final TmdbDetails EMPTY = new TmdbDetails(List.of(), List.of(), List.of(), List.of());
+}
@@ -0,0 +1,245 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.TmdbApiException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser that extracts the fields needed to build a movie from a combined TMDb details response,
+ * as returned by {@link TmdbClient#fetchCombinedDetails(int)}.
+ * <p>
+ * Unlike building an {@code org.json} tree, only the extracted values are materialized: all other
+ * fields, and array elements past the first few, are skipped token by token. Parsing stops as soon
+ * as all appended resources have been read, so the rest of the document is never scanned.
+ * <p>
+ * The watch providers appended to a combined response are read as well. When only they have expired,
+ * they are fetched on their own; that response is read by {@link #parseWatchProviders(String)}, and
+ * {@link #writeWatchProviders(List)} produces the same format for the providers of a combined response.
+ */
+public final class TmdbDetailsParser {
+
+    /**
+     * Number of backdrops, keywords and similar titles kept per movie.
+     */
+    public static final int LIMIT = 3;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private TmdbDetailsParser() {
+    }
+
+    /**
+     * Parses a combined TMDb details response.
+     *
+     * @param json the response body
+     * @return the extracted details
+     * @throws TmdbApiException if the response is not valid JSON
+     */
+    public static TmdbDetails parse(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parse(parser);
+        } catch (IOException e) {
+            throw new TmdbApiException("Invalid TMDb details response", e);
+        }
+    }
+
+    /**
+     * Parses a TMDb watch providers response.
+     *
+     * @param json the response body
+     * @return the names of the US flatrate (subscription) providers, in order
+     * @throws TmdbApiException if the response is not valid JSON
+     */
+    public static List<String> parseWatchProviders(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.nextToken();
+            return readUsFlatrateProviders(parser);
+        } catch (IOException e) {
+            throw new TmdbApiException("Invalid TMDb watch providers response", e);
+        }
+    }
+
+    /**
+     * Writes watch provider names as a minimal TMDb watch providers response, so the providers read
+     * from a combined response can be cached on their own and read back by {@link #parseWatchProviders(String)}.
+     *
+     * @param providers the names of the US flatrate providers
+     * @return the watch providers response
+     */
+    public static String writeWatchProviders(List<String> providers) {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("results");
+            generator.writeObjectFieldStart("US");
+            generator.writeArrayFieldStart("flatrate");
+            for (String provider : providers) {
+                generator.writeStartObject();
+                generator.writeStringField("provider_name", provider);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Reads the appended resources from the top-level object and skips everything else.
+     */
+    private static TmdbDetails parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new TmdbApiException("TMDb details response is not a JSON object");
+        }
+
+        List<String> backdrops = List.of();
+        List<String> keywords = List.of();
+        List<String> similar = List.of();
+        List<String> providers = List.of();
+        int remaining = TmdbClient.COMBINED_DETAIL_TYPES.size();
+
+        while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "images" -> {
+                    backdrops = readFirstValues(parser, "backdrops", "file_path", LIMIT);
+                    remaining--;
+                }
+                case "keywords" -> {
+                    keywords = readFirstValues(parser, "keywords", "name", LIMIT);
+                    remaining--;
+                }
+                case "similar" -> {
+                    similar = readFirstValues(parser, "results", "title", LIMIT);
+                    remaining--;
+                }
+                case TmdbClient.WATCH_PROVIDERS -> {
+                    providers = readUsFlatrateProviders(parser);
+                    remaining--;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return new TmdbDetails(backdrops, keywords, similar, providers);
+    }
+
+    /**
+     * Reads a string field from the first elements of an array inside the current object,
+     * e.g. the {@code file_path} of the first three entries of {@code images.backdrops}.
+     *
+     * @param parser     parser positioned at the start of the object holding the array
+     * @param arrayField name of the array field
+     * @param valueField name of the string field to read from each element
+     * @param limit      maximum number of values to read
+     * @return the non-empty values, in order
+     */
+    private static List<String> readFirstValues(JsonParser parser, String arrayField, String valueField,
+                                                int limit) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return List.of();
+        }
+
+        List<String> values = new ArrayList<>(Math.min(limit, LIMIT));
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && field.equals(arrayField)) {
+                readArrayValues(parser, valueField, limit, values);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads the {@code provider_name} of every entry of {@code results.US.flatrate}.
+     *
+     * @param parser parser positioned at the start of the watch providers object
+     * @return the provider names, in order; empty if the parser is not at the start of an object
+     */
+    private static List<String> readUsFlatrateProviders(JsonParser parser) throws IOException {
+        if (!enterObjectField(parser, "results")) {
+            return List.of();
+        }
+        List<String> providers = List.of();
+        if (enterObjectField(parser, "US")) {
+            providers = readFirstValues(parser, "flatrate", "provider_name", Integer.MAX_VALUE);
+            skipRestOfObject(parser); // rest of "results"
+        }
+        skipRestOfObject(parser); // rest of the watch providers object
+        return providers;
+    }
+
+    /**
+     * Advances to an object-valued field of the current object, skipping the fields before it.
+     * If the field is missing, the whole current object is consumed.
+     *
+     * @param parser parser positioned at the start of an object
+     * @param name   the field to enter
+     * @return {@code true} if the parser is now at the start of the field's object
+     */
+    private static boolean enterObjectField(JsonParser parser, String name) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT && field.equals(name)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    /**
+     * Reads a string field from the first elements of the current array and skips the rest.
+     */
+    private static void readArrayValues(JsonParser parser, String valueField, int limit,
+                                        List<String> values) throws IOException {
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (index++ >= limit || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING && field.equals(valueField)) {
+                    String text = parser.getText();
+                    if (!text.isEmpty()) {
+                        values.add(text);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips the remaining fields of the object the parser is currently inside.
+     */
+    private static void skipRestOfObject(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.ConnectionPoolTimeoutException;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and concurrency bulkhead protecting the calls to one external API.
+ * <p>
+ * After {@code failureThreshold} consecutive failures the breaker opens and calls are rejected
+ * immediately with an {@link UpstreamUnavailableException} for {@code openDuration}. After that,
+ * a single trial call is let through (half-open): if it succeeds the breaker closes again,
+ * otherwise it re-opens. Only connection problems and server errors count as failures;
+ * client errors such as 404 say nothing about the health of the API.
+ * <p>
+ * Independently of the breaker, at most {@code maxConcurrentCalls} calls run at the same time.
+ * A call that cannot start within {@code maxWait} is rejected, so a slow API cannot tie up
+ * every ingest thread. Callers should therefore wait for anything else, such as a rate limiter
+ * token, before entering the guard rather than inside it.
+ * <p>
+ * A call rejected with an {@link UpstreamUnavailableException} before it reached the API (e.g. by a
+ * rate limiter), or that timed out waiting for a pooled connection ({@link ConnectionPoolTimeoutException}),
+ * is neutral: it is recorded as neither success nor failure, and a half-open breaker stays half-open
+ * for the next trial call.
+ */
+public class UpstreamGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamGuard.class);
+
+    /**
+     * States of the circuit breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int maxConcurrentCalls;
+    private final Duration maxWait;
+    private final Clock clock;
+    private final Semaphore bulkhead;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean trialInProgress;
+
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final AtomicLong bulkheadRejected = new AtomicLong();
+
+    /**
+     * Creates a guard using the system clock.
+     *
+     * @param name               name of the protected API, used in messages and statistics
+     * @param failureThreshold   number of consecutive failures that opens the breaker
+     * @param openDuration       how long the breaker stays open before a trial call
+     * @param maxConcurrentCalls maximum number of concurrent calls
+     * @param maxWait            maximum time a call waits for a free slot
+     */
+    public UpstreamGuard(String name, int failureThreshold, Duration openDuration,
+                         int maxConcurrentCalls, Duration maxWait) {
+        this(name, failureThreshold, openDuration, maxConcurrentCalls, maxWait, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a guard using the given clock for the open duration.
+     *
+     * @param name               name of the protected API, used in messages and statistics
+     * @param failureThreshold   number of consecutive failures that opens the breaker
+     * @param openDuration       how long the breaker stays open before a trial call
+     * @param maxConcurrentCalls maximum number of concurrent calls
+     * @param maxWait            maximum time a call waits for a free slot
+     * @param clock              clock used to time the open state
+     */
+    public UpstreamGuard(String name, int failureThreshold, Duration openDuration,
+                         int maxConcurrentCalls, Duration maxWait, Clock clock) {
+        if (failureThreshold <= 0 || maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("failureThreshold and maxConcurrentCalls must be positive");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWait = maxWait;
+        this.clock = clock;
+        this.bulkhead = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * Runs a call to the API if the breaker and the bulkhead allow it, and records its outcome.
+     *
+     * @param call the call to run
+     * @param <T>  the result type
+     * @return the call's result
+     * @throws UpstreamUnavailableException if the breaker is open or no slot became available in time
+     */
+    public <T> T execute(Supplier<T> call) {
+        boolean trial = acquirePermission();
+        try {
+            acquireSlot();
+        } catch (UpstreamUnavailableException e) {
+            if (trial) {
+                endTrial();
+            }
+            throw e;
+        }
+
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (UpstreamUnavailableException | ConnectionPoolTimeoutException e) {
+            // Rejected or never sent, so it says nothing about the API's health
+            if (trial) {
+                endTrial();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            if (isFailure(e)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Returns the current state of the breaker.
+     *
+     * @return the breaker state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Returns a snapshot of the breaker state and call counters.
+     *
+     * @return a map with state, counters and bulkhead usage
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", getState());
+        synchronized (this) {
+            stats.put("consecutiveFailures", consecutiveFailures);
+        }
+        stats.put("successes", successes.get());
+        stats.put("failures", failures.get());
+        stats.put("shortCircuited", shortCircuited.get());
+        stats.put("bulkheadRejected", bulkheadRejected.get());
+        stats.put("activeCalls", maxConcurrentCalls - bulkhead.availablePermits());
+        stats.put("maxConcurrentCalls", maxConcurrentCalls);
+        return stats;
+    }
+
+    /**
+     * Checks whether the breaker lets a call through.
+     *
+     * @return {@code true} if the call is the trial call of a half-open breaker
+     * @throws UpstreamUnavailableException if the breaker is open
+     */
+    private synchronized boolean acquirePermission() {
+        if (state == State.OPEN) {
+            Instant retryAt = openedAt.plus(openDuration);
+            if (clock.instant().isBefore(retryAt)) {
+                shortCircuited.incrementAndGet();
+                throw new UpstreamUnavailableException(name, "Circuit breaker for " + name + " is open",
+                        Duration.between(clock.instant(), retryAt));
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInProgress) {
+                shortCircuited.incrementAndGet();
+                throw new UpstreamUnavailableException(name, "Circuit breaker for " + name + " is half-open", openDuration);
+            }
+            trialInProgress = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Waits for a free bulkhead slot.
+     *
+     * @throws UpstreamUnavailableException if no slot becomes available within {@code maxWait}
+     */
+    private void acquireSlot() {
+        try {
+            if (!bulkhead.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                bulkheadRejected.incrementAndGet();
+                throw new UpstreamUnavailableException(name, "Too many concurrent calls to " + name, maxWait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamUnavailableException(name, "Interrupted while waiting to call " + name, maxWait);
+        }
+    }
+
+    /**
+     * Frees the trial slot of a half-open breaker when the trial call did not run.
+     */
+    private synchronized void endTrial() {
+        trialInProgress = false;
+    }
+
+    /**
+     * Records a successful call and closes the breaker.
+     */
+    private synchronized void onSuccess() {
+        successes.incrementAndGet();
+        consecutiveFailures = 0;
+        trialInProgress = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a failed call and opens the breaker once the threshold is reached,
+     * or immediately when the trial call of a half-open breaker fails.
+     */
+    private synchronized void onFailure() {
+        failures.incrementAndGet();
+        consecutiveFailures++;
+        trialInProgress = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Circuit breaker for {} opened after {} failures", name, consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+
+    /**
+     * Decides whether an exception indicates that the API is unhealthy.
+     *
+     * @param e the exception thrown by the call
+     * @return {@code true} for connection problems and server errors, {@code false} for client errors
+     */
+    private boolean isFailure(RuntimeException e) {
+        return e instanceof RestClientException && !(e instanceof HttpClientErrorException);
+    }
+}
@@ -49,6 +49,10 @@ public class MovieIntegrationTest {
         assertThat(addedMovie).isNotNull();
         Long id = addedMovie.getId();
 
+        ResponseEntity<Movie> byIdResponse = restTemplate.getForEntity(getUrl("/movies/" + id), Movie.class);
+        assertThat(byIdResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(byIdResponse.getBody().getTitle()).isEqualTo(addedMovie.getTitle());
+
         ResponseEntity<String> getResponse = restTemplate.getForEntity(getUrl("/movies?page=0&size=5"), String.class);
         assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(getResponse.getBody()).contains("Inception");
@@ -77,6 +81,17 @@ public class MovieIntegrationTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Ensures that combining the ID lookup with keyset pagination is rejected instead of picking one mode.
+     */
+    @Test
+    void getMovies_IdsWithAfter_ShouldReturnBadRequest() {
+        ResponseEntity<String> response = restTemplate.getForEntity(getUrl("/movies?ids=1,2&after="), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(new JSONObject(response.getBody()).getString("message")).contains("cannot be combined");
+    }
+
     /**
      * Verifies that OMDb failure results in a 400 with appropriate error structure.
      */
@@ -0,0 +1,154 @@
+package com.example.moviefinder.controller;
+
+import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.service.EnrichmentService;
+import com.example.moviefinder.service.MovieService;
+import com.example.moviefinder.util.ImageStore;
+import com.example.moviefinder.util.ThumbnailGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImageController.class)
+class ImageControllerTest {
+
+    private static final String KEY = "a".repeat(64) + ".jpg";
+    private static final String ETAG = "\"" + "a".repeat(64) + "\"";
+    private static final String THUMB_KEY = "a".repeat(64) + "_thumb.jpg";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private MovieService movieService;
+
+    @MockitoBean
+    private ImageStore imageStore;
+
+    @MockitoBean
+    private ThumbnailGenerator thumbnailGenerator;
+
+    @MockitoBean
+    private EnrichmentService enrichmentService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path image = Files.writeString(tempDir.resolve(KEY), "0123456789");
+        when(movieService.getMovieById(1L)).thenReturn(Optional.of(Movie.builder().id(1L).imagePath1(KEY).build()));
+        when(imageStore.resolve(KEY)).thenReturn(Optional.of(image));
+        when(imageStore.variantKey(KEY, "thumb")).thenReturn(THUMB_KEY);
+        when(thumbnailGenerator.sizes()).thenReturn(Set.of("thumb", ThumbnailGenerator.ORIGINAL));
+    }
+
+    @Test
+    void getImage_ShouldStreamImageWithCacheHeaders() throws Exception {
+        mockMvc.perform(get("/movies/1/images/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("Content-Type", "image/jpeg"))
+                .andExpect(content().string("0123456789"));
+
+        verify(imageStore).resolve(KEY);
+    }
+
+    @Test
+    void getImage_ShouldReturnNotModifiedForMatchingEtag() throws Exception {
+        mockMvc.perform(get("/movies/1/images/1").header("If-None-Match", ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getImage_ShouldReturnRequestedRange() throws Exception {
+        mockMvc.perform(get("/movies/1/images/1").header("Range", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void getImage_ShouldRejectUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/movies/1/images/1").header("Range", "bytes=50-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */10"));
+    }
+
+    @Test
+    void getImage_ShouldReturnNotFoundForMissingImage() throws Exception {
+        mockMvc.perform(get("/movies/1/images/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getImage_ShouldReturnNotFoundForImageEvictedAfterResolve() throws Exception {
+        Files.delete(tempDir.resolve(KEY));
+
+        mockMvc.perform(get("/movies/1/images/1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getImage_ShouldScheduleRestoreOfEvictedImage() throws Exception {
+        when(imageStore.resolve(KEY)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/movies/1/images/1"))
+                .andExpect(status().isNotFound());
+
+        verify(enrichmentService).scheduleImageRestore(argThat(movie -> movie.getId() == 1L));
+    }
+
+    @Test
+    void getImage_ShouldStreamRequestedVariant() throws Exception {
+        Path thumb = Files.writeString(tempDir.resolve(THUMB_KEY), "thumb");
+        when(imageStore.resolve(THUMB_KEY)).thenReturn(Optional.of(thumb));
+
+        mockMvc.perform(get("/movies/1/images/1").param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + "a".repeat(64) + "_thumb\""))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(content().string("thumb"));
+
+        verify(imageStore).resolve(THUMB_KEY);
+        verify(imageStore, never()).resolve(KEY);
+    }
+
+    @Test
+    void getImage_ShouldServeOriginalAndScheduleMissingVariant() throws Exception {
+        when(imageStore.resolve(THUMB_KEY)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/movies/1/images/1").param("size", "thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().string("Cache-Control", "public, max-age=60"))
+                .andExpect(content().string("0123456789"));
+
+        verify(imageStore).resolve(KEY);
+        verify(thumbnailGenerator).scheduleVariant(KEY, "thumb");
+    }
+
+    @Test
+    void getImage_ShouldRejectUnknownSize() throws Exception {
+        mockMvc.perform(get("/movies/1/images/1").param("size", "huge"))
+                .andExpect(status().isBadRequest());
+    }
+}
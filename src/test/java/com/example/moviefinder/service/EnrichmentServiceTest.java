@@ -0,0 +1,125 @@
+package com.example.moviefinder.service;
+
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.repository.MovieRepository;
+import com.example.moviefinder.util.MovieCache;
+import com.example.moviefinder.util.MovieDataFetcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EnrichmentServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private MovieDataFetcher movieDataFetcher;
+
+    @Mock
+    private MovieCache movieCache;
+
+    @InjectMocks
+    private EnrichmentService enrichmentService;
+
+    @Test
+    void schedule_ShouldStoreTmdbFieldsOfCopy() {
+        // Arrange
+        ReflectionTestUtils.setField(enrichmentService, "enrichmentExecutor", (Executor) Runnable::run);
+        Movie movie = Movie.builder().id(1L).title("Inception").enrichmentStatus(Movie.EnrichmentStatus.PENDING).build();
+        when(movieDataFetcher.enrichMovie(any())).thenAnswer(invocation -> {
+            Movie enriched = invocation.getArgument(0);
+            enriched.setKeywords("dream");
+            enriched.setEnrichmentStatus(Movie.EnrichmentStatus.COMPLETE);
+            return enriched;
+        });
+
+        // Act
+        boolean scheduled = enrichmentService.schedule(movie);
+
+        // Assert
+        ArgumentCaptor<Movie> stored = ArgumentCaptor.forClass(Movie.class);
+        verify(movieRepository).updateEnrichment(stored.capture());
+        assertThat(scheduled).isTrue();
+        assertThat(stored.getValue().getId()).isEqualTo(1L);
+        assertThat(stored.getValue().getKeywords()).isEqualTo("dream");
+        assertThat(stored.getValue().getEnrichmentStatus()).isEqualTo(Movie.EnrichmentStatus.COMPLETE);
+        assertThat(movie.getEnrichmentStatus()).isEqualTo(Movie.EnrichmentStatus.PENDING);
+    }
+
+    @Test
+    void schedule_ShouldMarkEnrichmentFailedWhenTmdbIsUnavailable() {
+        // Arrange
+        ReflectionTestUtils.setField(enrichmentService, "enrichmentExecutor", (Executor) Runnable::run);
+        Movie movie = Movie.builder().id(2L).title("Inception").enrichmentStatus(Movie.EnrichmentStatus.PENDING).build();
+        when(movieDataFetcher.enrichMovie(any()))
+                .thenThrow(new UpstreamUnavailableException("tmdb", "Circuit breaker for tmdb is open", Duration.ofSeconds(30)));
+
+        // Act
+        enrichmentService.schedule(movie);
+
+        // Assert
+        ArgumentCaptor<Movie> stored = ArgumentCaptor.forClass(Movie.class);
+        verify(movieRepository).updateEnrichment(stored.capture());
+        assertThat(stored.getValue().getEnrichmentStatus()).isEqualTo(Movie.EnrichmentStatus.FAILED);
+        assertThat(enrichmentService.stats()).containsEntry("failed", 1L);
+    }
+
+    @Test
+    void schedule_ShouldLeaveMoviePendingWhenQueueIsFull() {
+        // Arrange
+        ReflectionTestUtils.setField(enrichmentService, "enrichmentExecutor", (Executor) task -> {
+            throw new TaskRejectedException("queue full");
+        });
+
+        // Act
+        boolean scheduled = enrichmentService.schedule(Movie.builder().id(3L).title("Inception").build());
+
+        // Assert
+        assertThat(scheduled).isFalse();
+        verifyNoInteractions(movieDataFetcher, movieRepository);
+        assertThat(enrichmentService.stats()).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void scheduleImageRestore_ShouldQueueMovieOnlyOnce() {
+        // Arrange
+        List<Runnable> queued = new ArrayList<>();
+        ReflectionTestUtils.setField(enrichmentService, "enrichmentExecutor", (Executor) queued::add);
+        Movie movie = Movie.builder().id(4L).title("Inception").imagePath1("evicted.jpg").build();
+        when(movieDataFetcher.enrichMovie(any())).thenAnswer(invocation -> {
+            Movie restored = invocation.getArgument(0);
+            restored.setImagePath1("restored.jpg");
+            return restored;
+        });
+
+        // Act
+        boolean first = enrichmentService.scheduleImageRestore(movie);
+        boolean second = enrichmentService.scheduleImageRestore(movie);
+        queued.forEach(Runnable::run);
+
+        // Assert
+        ArgumentCaptor<Movie> stored = ArgumentCaptor.forClass(Movie.class);
+        verify(movieRepository).updateEnrichment(stored.capture());
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(stored.getValue().getImagePath1()).isEqualTo("restored.jpg");
+        assertThat(enrichmentService.stats()).containsEntry("imagesRestored", 1L);
+        assertThat(enrichmentService.scheduleImageRestore(movie)).isTrue();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.moviefinder.service;
+
+import com.example.moviefinder.dto.IngestJob;
+import com.example.moviefinder.exceptions.OmdbApiException;
+import com.example.moviefinder.exceptions.TooManyRequestsException;
+import com.example.moviefinder.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestJobServiceTest {
+
+    @Mock
+    private MovieService movieService;
+
+    @InjectMocks
+    private IngestJobService ingestJobService;
+
+    private final List<Runnable> queued = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ingestJobService, "asyncIngestExecutor", (Executor) queued::add);
+    }
+
+    @Test
+    void submit_ShouldQueueJobAndReportMovieIdWhenDone() {
+        // Arrange
+        when(movieService.addMovieByTitle("Inception", false)).thenReturn(Movie.builder().id(7L).build());
+
+        // Act
+        IngestJob job = ingestJobService.submit("  Inception ", false);
+
+        // Assert
+        assertThat(job.status()).isEqualTo(IngestJob.Status.QUEUED);
+        assertThat(job.title()).isEqualTo("Inception");
+        verifyNoInteractions(movieService);
+
+        queued.forEach(Runnable::run);
+        IngestJob done = ingestJobService.getJob(job.id()).orElseThrow();
+        assertThat(done.status()).isEqualTo(IngestJob.Status.SUCCEEDED);
+        assertThat(done.movieId()).isEqualTo(7L);
+        assertThat(done.finishedAt()).isNotNull();
+    }
+
+    @Test
+    void submit_ShouldRecordFailure() {
+        // Arrange
+        when(movieService.addMovieByTitle("nothing999", false)).thenThrow(new OmdbApiException("OMDb error: Movie not found!"));
+
+        // Act
+        IngestJob job = ingestJobService.submit("nothing999", false);
+        queued.forEach(Runnable::run);
+
+        // Assert
+        IngestJob done = ingestJobService.getJob(job.id()).orElseThrow();
+        assertThat(done.status()).isEqualTo(IngestJob.Status.FAILED);
+        assertThat(done.error()).isEqualTo("OMDb error: Movie not found!");
+        assertThat(done.movieId()).isNull();
+    }
+
+    @Test
+    void submit_ShouldRejectWhenQueueIsFull() {
+        // Arrange
+        ReflectionTestUtils.setField(ingestJobService, "asyncIngestExecutor", (Executor) task -> {
+            throw new TaskRejectedException("queue full");
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> ingestJobService.submit("Inception", false))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(ingestJobService.stats()).containsEntry("queued", 0L).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void submit_ShouldRejectBlankTitle() {
+        assertThatThrownBy(() -> ingestJobService.submit("   ", false)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(queued).isEmpty();
+    }
+}
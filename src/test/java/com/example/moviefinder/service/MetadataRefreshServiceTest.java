@@ -0,0 +1,172 @@
+package com.example.moviefinder.service;
+
+import com.example.moviefinder.dto.RebuildResponse;
+import com.example.moviefinder.exceptions.OmdbApiException;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.repository.MovieRepository;
+import com.example.moviefinder.util.MovieCache;
+import com.example.moviefinder.util.MovieDataFetcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetadataRefreshServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private MovieDataFetcher movieDataFetcher;
+
+    @Mock
+    private MovieCache movieCache;
+
+    @InjectMocks
+    private MetadataRefreshService refreshService;
+
+    @Test
+    void refreshStaleMovies_ShouldWriteBackOnlyChangedMovies() {
+        // Arrange
+        Movie changed = Movie.builder().id(1L).title("Inception").imdbRating("8.7").version(3L).build();
+        Movie same = Movie.builder().id(2L).title("Heat").imdbRating("8.3").version(1L).build();
+        Movie missing = Movie.builder().id(3L).title("Gone").version(0L).build();
+        when(movieRepository.findStale(any(), isNull(), eq(0L), any(Pageable.class))).thenReturn(List.of(changed, same, missing));
+        when(movieRepository.findStale(any(), isNull(), eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(movieDataFetcher.fetchFreshMetadata(changed)).thenReturn(Movie.builder().title("Inception").imdbRating("8.8").build());
+        when(movieDataFetcher.fetchFreshMetadata(same)).thenReturn(Movie.builder().title("Heat").imdbRating("8.3").build());
+        when(movieDataFetcher.fetchFreshMetadata(missing)).thenThrow(new OmdbApiException("OMDb error: Movie not found!"));
+        when(movieRepository.updateMetadata(any())).thenReturn(new int[]{1});
+
+        // Act
+        int checked = refreshService.refreshStaleMovies();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Movie>> written = ArgumentCaptor.forClass(List.class);
+        verify(movieRepository).updateMetadata(written.capture());
+        assertThat(written.getValue()).singleElement().satisfies(movie -> {
+            assertThat(movie.getId()).isEqualTo(1L);
+            assertThat(movie.getVersion()).isEqualTo(3L);
+            assertThat(movie.getImdbRating()).isEqualTo("8.8");
+        });
+        verify(movieRepository).markFetched(eq(List.of(2L, 3L)), any());
+        assertThat(checked).isEqualTo(3);
+        assertThat(refreshService.stats())
+                .containsEntry("changed", 1L)
+                .containsEntry("unchanged", 1L)
+                .containsEntry("failed", 1L);
+    }
+
+    @Test
+    void refreshStaleMovies_ShouldStopWhenThereIsNoSpareCapacity() {
+        // Arrange
+        Movie first = Movie.builder().id(1L).title("Inception").build();
+        Movie second = Movie.builder().id(2L).title("Heat").build();
+        when(movieRepository.findStale(any(), any(), anyLong(), any(Pageable.class))).thenReturn(List.of(first, second));
+        when(movieDataFetcher.fetchFreshMetadata(first))
+                .thenThrow(new UpstreamUnavailableException("omdb", "No spare omdb capacity for background requests", Duration.ofMillis(100)));
+
+        // Act
+        refreshService.refreshStaleMovies();
+
+        // Assert
+        verify(movieDataFetcher, never()).fetchFreshMetadata(second);
+        verify(movieRepository).findStale(any(), any(), anyLong(), any(Pageable.class));
+        verify(movieRepository, never()).markFetched(any(), any());
+        assertThat(refreshService.stats()).containsEntry("deferred", 1L);
+    }
+
+    @Test
+    void refreshStaleMovies_ShouldStayWithinRequestBudget() {
+        // Arrange
+        ReflectionTestUtils.setField(refreshService, "requestBudget", MetadataRefreshService.REQUESTS_PER_MOVIE);
+        Movie movie = Movie.builder().id(1L).title("Inception").imdbRating("8.8").build();
+        when(movieRepository.findStale(any(), any(), anyLong(), any(Pageable.class))).thenReturn(List.of(movie));
+        when(movieDataFetcher.fetchFreshMetadata(movie)).thenReturn(Movie.builder().title("Inception").imdbRating("8.8").build());
+
+        // Act
+        int checked = refreshService.refreshStaleMovies();
+
+        // Assert
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(movieRepository).findStale(any(), any(), anyLong(), page.capture());
+        assertThat(page.getValue().getPageSize()).isEqualTo(1);
+        assertThat(checked).isEqualTo(1);
+    }
+
+    @Test
+    void refreshStaleMovies_ShouldSeekPastMoviesThatStayStale() {
+        // Arrange
+        ReflectionTestUtils.setField(refreshService, "batchSize", 2);
+        Instant fetchedAt = Instant.parse("2026-01-01T00:00:00Z");
+        Movie conflicted = Movie.builder().id(1L).title("Inception").imdbRating("8.7").version(3L).build();
+        Movie first = Movie.builder().id(2L).title("Heat").lastFetchedAt(fetchedAt).build();
+        Movie second = Movie.builder().id(3L).title("Ronin").lastFetchedAt(fetchedAt).build();
+        when(movieRepository.findStale(any(), isNull(), eq(0L), any(Pageable.class))).thenReturn(List.of(conflicted, first));
+        when(movieRepository.findStale(any(), eq(fetchedAt), eq(2L), any(Pageable.class))).thenReturn(List.of(second));
+        when(movieRepository.findStale(any(), eq(fetchedAt), eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(movieDataFetcher.fetchFreshMetadata(conflicted)).thenReturn(Movie.builder().title("Inception").imdbRating("8.8").build());
+        when(movieDataFetcher.fetchFreshMetadata(first)).thenReturn(Movie.builder().title("Heat").build());
+        when(movieDataFetcher.fetchFreshMetadata(second)).thenReturn(Movie.builder().title("Ronin").build());
+        when(movieRepository.updateMetadata(any())).thenReturn(new int[]{0});
+
+        // Act
+        int checked = refreshService.refreshStaleMovies();
+
+        // Assert
+        assertThat(checked).isEqualTo(3);
+        verify(movieDataFetcher).fetchFreshMetadata(conflicted);
+        verify(movieRepository).markFetched(eq(List.of(3L)), any());
+        assertThat(refreshService.stats())
+                .containsEntry("conflicts", 1L)
+                .containsEntry("unchanged", 2L);
+    }
+
+    @Test
+    void rebuildFromStoredResponses_ShouldWriteBackChangedMoviesKeepingFetchTime() {
+        // Arrange
+        Instant fetchedAt = Instant.parse("2026-01-01T00:00:00Z");
+        Movie changed = Movie.builder().id(1L).title("Inception").keywords("dream").version(2L).lastFetchedAt(fetchedAt).build();
+        Movie notCached = Movie.builder().id(2L).title("Heat").build();
+        when(movieRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(changed, notCached), PageRequest.of(0, 20), false));
+        when(movieDataFetcher.rebuildMetadata(changed))
+                .thenReturn(Movie.builder().title("Inception").keywords("dream, heist").lastFetchedAt(Instant.now()).build());
+        when(movieDataFetcher.rebuildMetadata(notCached))
+                .thenThrow(new UpstreamUnavailableException("omdb", "No stored OMDb response for Heat", Duration.ZERO));
+        when(movieRepository.updateMetadata(any())).thenReturn(new int[]{1});
+
+        // Act
+        RebuildResponse response = refreshService.rebuildFromStoredResponses();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Movie>> written = ArgumentCaptor.forClass(List.class);
+        verify(movieRepository).updateMetadata(written.capture());
+        assertThat(written.getValue()).singleElement().satisfies(movie -> {
+            assertThat(movie.getId()).isEqualTo(1L);
+            assertThat(movie.getKeywords()).isEqualTo("dream, heist");
+            assertThat(movie.getLastFetchedAt()).isEqualTo(fetchedAt);
+        });
+        assertThat(response).isEqualTo(new RebuildResponse(1, 0, List.of(2L), List.of()));
+    }
+}
@@ -1,15 +1,45 @@
 package com.example.moviefinder.service;
 
+import com.example.moviefinder.dto.BatchIngestResponse;
+import com.example.moviefinder.dto.BatchIngestResult;
+import com.example.moviefinder.dto.BulkUpdateResponse;
+import com.example.moviefinder.dto.MovieChange;
+import com.example.moviefinder.dto.MovieSlice;
+import com.example.moviefinder.dto.MovieSummary;
+import com.example.moviefinder.dto.MovieUpdate;
+import com.example.moviefinder.exceptions.OmdbApiException;
 import com.example.moviefinder.model.Movie;
+import com.example.moviefinder.model.MovieAlias;
+import com.example.moviefinder.repository.MovieAliasRepository;
 import com.example.moviefinder.repository.MovieRepository;
+import com.example.moviefinder.util.KeysetCursor;
+import com.example.moviefinder.util.MovieCache;
+import com.example.moviefinder.util.MovieDataFetcher;
+import com.example.moviefinder.util.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -18,42 +48,429 @@ class MovieServiceTest {
     @Mock
     private MovieRepository movieRepository;
 
+    @Mock
+    private MovieAliasRepository movieAliasRepository;
+
+    @Mock
+    private MovieDataFetcher movieDataFetcher;
+
+    @Mock
+    private EnrichmentService enrichmentService;
+
+    @Spy
+    private MovieCache movieCache = new MovieCache(100, Duration.ofMinutes(10));
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private MovieService movieService;
 
     @Test
     void updateWatched_ShouldUpdateFlag() {
         // Arrange
-        Movie movie = new Movie();
-        movie.setId(1L);
-        movie.setWatched(false);
-
-        when(movieRepository.findById(1L)).thenReturn(Optional.of(movie));
-        when(movieRepository.save(any(Movie.class))).thenReturn(movie);
+        when(movieRepository.updateWatchedReturningVersion(1L, true, null)).thenReturn(Optional.of(5L));
 
         // Act
-        Optional<Movie> result = movieService.updateWatched(1L, true);
+        Optional<MovieUpdate> result = movieService.updateWatched(1L, true, null);
 
         // Assert
-        assertThat(result).isPresent();
-        assertThat(result.get().isWatched()).isTrue();
+        assertThat(result).contains(new MovieUpdate(1L, true, null, 5L));
+        verify(movieRepository, never()).findById(any());
+        verify(movieRepository, never()).save(any());
     }
 
     @Test
     void updateRating_ShouldUpdateRating() {
         // Arrange
-        Movie movie = new Movie();
-        movie.setId(2L);
-        movie.setRating(3);
+        when(movieRepository.updateRatingReturningVersion(2L, 5, 3L)).thenReturn(Optional.of(4L));
+
+        // Act
+        Optional<MovieUpdate> result = movieService.updateRating(2L, 5, 3L);
+
+        // Assert
+        assertThat(result).contains(new MovieUpdate(2L, null, 5, 4L));
+    }
+
+    @Test
+    void updateWatched_ShouldReturnEmptyForUnknownMovie() {
+        // Arrange
+        when(movieRepository.updateWatchedReturningVersion(9L, true, null)).thenReturn(Optional.empty());
+
+        // Act
+        Optional<MovieUpdate> result = movieService.updateWatched(9L, true, null);
+
+        // Assert
+        assertThat(result).isEmpty();
+        verify(movieRepository, never()).existsById(any());
+    }
+
+    @Test
+    void updateWatched_WithStaleVersion_ShouldFailWithConflict() {
+        // Arrange
+        when(movieRepository.updateWatchedReturningVersion(1L, true, 2L)).thenReturn(Optional.empty());
+        when(movieRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> movieService.updateWatched(1L, true, 2L))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void addMoviesByTitles_ShouldReportFailuresWithoutFailingBatch() {
+        // Arrange
+        ReflectionTestUtils.setField(movieService, "batchIngestExecutor", (Executor) Runnable::run);
+        Movie inception = Movie.builder().title("Inception").build();
+
+        when(movieDataFetcher.fetchAndBuildMovie("Inception")).thenReturn(inception);
+        when(movieDataFetcher.fetchAndBuildMovie("nothing999"))
+                .thenThrow(new OmdbApiException("OMDb error: Movie not found!"));
+        when(movieRepository.insertAll(List.of(inception))).thenAnswer(invocation -> {
+            inception.setId(7L);
+            return List.of(inception);
+        });
+
+        // Act
+        BatchIngestResponse response = movieService.addMoviesByTitles(List.of("Inception", " ", "nothing999"));
+
+        // Assert
+        assertThat(response.succeeded()).isEqualTo(1);
+        assertThat(response.failed()).isEqualTo(1);
+        assertThat(response.results()).containsExactly(
+                BatchIngestResult.created("Inception", 7L),
+                BatchIngestResult.failed("nothing999", "OMDb error: Movie not found!"));
+    }
+
+    @Test
+    void addMoviesByTitles_ShouldReportFailedUpdateWithoutFailingBatch() {
+        // Arrange
+        ReflectionTestUtils.setField(movieService, "batchIngestExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(movieService, "reuseExisting", false);
+        Movie inception = Movie.builder().title("Inception").year("2010").build();
+        Movie matrix = Movie.builder().title("The Matrix").year("1999").build();
+        Movie stored = Movie.builder().id(3L).title("The Matrix").year("1999").version(1L).build();
+
+        when(movieDataFetcher.fetchAndBuildMovie("Inception")).thenReturn(inception);
+        when(movieDataFetcher.fetchAndBuildMovie("The Matrix")).thenReturn(matrix);
+        when(movieRepository.findByNormalizedTitleAndYear("the matrix", "1999")).thenReturn(Optional.of(stored));
+        when(movieRepository.insertAll(List.of(inception))).thenAnswer(invocation -> {
+            inception.setId(7L);
+            return List.of(inception);
+        });
+        when(movieRepository.save(matrix)).thenThrow(new ObjectOptimisticLockingFailureException(Movie.class, 3L));
+
+        // Act
+        BatchIngestResponse response = movieService.addMoviesByTitles(List.of("Inception", "The Matrix"));
+
+        // Assert
+        assertThat(response.results()).containsExactly(
+                BatchIngestResult.created("Inception", 7L),
+                BatchIngestResult.failed("The Matrix", "Movie was changed while it was being fetched"));
+    }
+
+    @Test
+    void addMoviesByTitles_ShouldJoinAddOfSameTitleInFlight() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(movieService, "batchIngestExecutor", (Executor) Runnable::run);
+        Movie stored = Movie.builder().id(3L).title("Inception").year("2010").build();
+        CompletableFuture<Movie> add = new CompletableFuture<>();
+        @SuppressWarnings("unchecked")
+        SingleFlight<String, Movie> inFlightAdds =
+                (SingleFlight<String, Movie>) ReflectionTestUtils.getField(movieService, "inFlightAdds");
+        inFlightAdds.register("inception", add);
+
+        // Act
+        CompletableFuture<BatchIngestResponse> batch =
+                CompletableFuture.supplyAsync(() -> movieService.addMoviesByTitles(List.of("INCEPTION")));
+        add.complete(stored);
+
+        // Assert
+        assertThat(batch.get(5, TimeUnit.SECONDS).results()).containsExactly(BatchIngestResult.existing("INCEPTION", 3L));
+        verifyNoInteractions(movieDataFetcher);
+        verify(movieRepository, never()).insertAll(any());
+    }
+
+    @Test
+    void addMoviesByTitles_ShouldReportMovieStoredConcurrentlyAsExisting() {
+        // Arrange
+        ReflectionTestUtils.setField(movieService, "batchIngestExecutor", (Executor) Runnable::run);
+        Movie fetched = Movie.builder().title("Inception").year("2010").build();
+        Movie stored = Movie.builder().id(3L).title("Inception").year("2010").build();
+
+        when(movieDataFetcher.fetchAndBuildMovie("Inception")).thenReturn(fetched);
+        when(movieRepository.findByNormalizedTitleAndYear("inception", "2010"))
+                .thenReturn(Optional.empty(), Optional.of(stored));
+        when(movieRepository.insertAll(List.of(fetched))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(movieRepository.save(fetched)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act
+        BatchIngestResponse response = movieService.addMoviesByTitles(List.of("Inception"));
+
+        // Assert
+        assertThat(response.results()).containsExactly(BatchIngestResult.existing("Inception", 3L));
+    }
+
+    @Test
+    void addMovieByTitle_ShouldReturnStoredMovieWithoutFetching() {
+        // Arrange
+        Movie stored = Movie.builder().id(3L).title("Inception").year("2010").build();
+        when(movieRepository.findFirstByNormalizedTitleOrderByIdAsc("inception")).thenReturn(Optional.of(stored));
+
+        // Act
+        Movie result = movieService.addMovieByTitle("  INCEPTION ");
+
+        // Assert
+        assertThat(result).isSameAs(stored);
+        verifyNoInteractions(movieDataFetcher);
+    }
+
+    @Test
+    void addMovieByTitle_ShouldReuseMovieStoredForRequestedTitle() {
+        // Arrange
+        Movie stored = Movie.builder().id(3L).title("The Matrix").year("1999").build();
+        when(movieRepository.findByAlias("matrix")).thenReturn(Optional.of(stored));
+
+        // Act
+        Movie result = movieService.addMovieByTitle("Matrix");
+
+        // Assert
+        assertThat(result).isSameAs(stored);
+        verifyNoInteractions(movieDataFetcher);
+        verify(movieRepository, never()).findFirstByNormalizedTitleOrderByIdAsc(any());
+    }
+
+    @Test
+    void addMovieByTitle_ShouldRememberRequestedTitleOfFetchedMovie() {
+        // Arrange
+        Movie fetched = Movie.builder().title("The Matrix").year("1999").build();
+        when(movieDataFetcher.fetchAndBuildMovie("Matrix")).thenReturn(fetched);
+        when(movieRepository.save(fetched)).thenAnswer(invocation -> {
+            fetched.setId(3L);
+            return fetched;
+        });
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MovieAlias>> aliases = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        movieService.addMovieByTitle("Matrix");
+
+        // Assert
+        verify(movieAliasRepository).saveAll(aliases.capture());
+        assertThat(aliases.getValue()).singleElement().satisfies(alias -> {
+            assertThat(alias.getAlias()).isEqualTo("matrix");
+            assertThat(alias.getMovie()).isSameAs(fetched);
+        });
+    }
+
+    @Test
+    void addMovieByTitle_WithRefresh_ShouldOverwriteStoredMovie() {
+        // Arrange
+        Movie stored = Movie.builder().id(3L).title("Inception").year("2010").watched(true).rating(5).version(2L).build();
+        Movie fetched = Movie.builder().title("Inception").year("2010").imdbRating("8.8").build();
+        when(movieDataFetcher.fetchAndBuildMovie("Inception")).thenReturn(fetched);
+        when(movieRepository.findByNormalizedTitleAndYear("inception", "2010")).thenReturn(Optional.of(stored));
+        when(movieRepository.save(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        when(movieRepository.findById(2L)).thenReturn(Optional.of(movie));
-        when(movieRepository.save(any(Movie.class))).thenReturn(movie);
+        // Act
+        Movie result = movieService.addMovieByTitle("Inception", true);
+
+        // Assert
+        assertThat(result.getId()).isEqualTo(3L);
+        assertThat(result.getImdbRating()).isEqualTo("8.8");
+        assertThat(result.isWatched()).isTrue();
+        assertThat(result.getRating()).isEqualTo(5);
+        assertThat(result.getVersion()).isEqualTo(2L);
+        verify(movieRepository, never()).findFirstByNormalizedTitleOrderByIdAsc(any());
+    }
+
+    @Test
+    void getMoviesAfter_ShouldSeekPastCursorAndReturnNextToken() {
+        // Arrange
+        List<Movie> movies = List.of(Movie.builder().id(11L).build(), Movie.builder().id(12L).build());
+        when(movieRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(movies, PageRequest.of(0, 2), true));
+
+        // Act
+        MovieSlice<?> slice = movieService.getMoviesAfter(KeysetCursor.encode(10L), 2, null);
+
+        // Assert
+        assertThat(slice.content()).isEqualTo(movies);
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(KeysetCursor.decode(slice.next())).isEqualTo(12L);
+        verify(movieRepository, never()).count();
+    }
+
+    @Test
+    void getMoviesAfter_ShouldReturnNoTokenForLastSlice() {
+        // Arrange
+        when(movieRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(Movie.builder().id(1L).build()), PageRequest.of(0, 10), false));
+
+        // Act
+        MovieSlice<?> slice = movieService.getMoviesAfter("", 10, null);
+
+        // Assert
+        assertThat(slice.hasNext()).isFalse();
+        assertThat(slice.next()).isNull();
+    }
+
+    @Test
+    void getMoviesAfter_ShouldRejectOversizedSlice() {
+        assertThatThrownBy(() -> movieService.getMoviesAfter("", 1000, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getMoviesAfter_WithSummaryFields_ShouldUseSummaryProjection() {
+        // Arrange
+        MovieSummary summary = new MovieSummary(5L, "Inception", "2010", null, true, 4);
+        when(movieRepository.findSummariesByIdGreaterThan(0L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 1), true));
+
+        // Act
+        MovieSlice<?> slice = movieService.getMoviesAfter("", 1, List.of("summary"));
+
+        // Assert
+        assertThat(slice.content()).containsExactly(summary);
+        assertThat(KeysetCursor.decode(slice.next())).isEqualTo(5L);
+        verify(movieRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void getAllMovies_WithFields_ShouldReadOnlyThoseFields() {
+        // Arrange
+        List<String> fields = List.of("title", "year");
+        Page<Map<String, Object>> page = new PageImpl<>(List.of(Map.of("id", 1L, "title", "Inception", "year", "2010")));
+        when(movieRepository.findAllFields(fields, PageRequest.of(0, 10))).thenReturn(page);
+
+        // Act
+        Page<?> result = movieService.getAllMovies(PageRequest.of(0, 10), fields);
+
+        // Assert
+        assertThat(result).isSameAs(page);
+        verify(movieRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getMoviesByIds_ShouldReturnStoredMoviesInRequestOrder() {
+        // Arrange
+        Movie first = Movie.builder().id(1L).build();
+        Movie second = Movie.builder().id(2L).build();
+        when(movieRepository.findAllById(any())).thenReturn(List.of(first, second));
+
+        // Act
+        List<Movie> result = movieService.getMoviesByIds(List.of(2L, 9L, 1L, 2L));
+
+        // Assert
+        assertThat(result).containsExactly(second, first);
+        verify(movieRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void getMoviesByIds_ShouldRejectTooManyIds() {
+        ReflectionTestUtils.setField(movieService, "maxBulkSize", 2);
+
+        assertThatThrownBy(() -> movieService.getMoviesByIds(List.of(1L, 2L, 3L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    void updateMovies_ShouldReportMissingMoviesAndVersionConflicts() {
+        // Arrange
+        List<MovieChange> changes = List.of(
+                new MovieChange(1L, true, null, null),
+                new MovieChange(2L, null, 4, 7L),
+                new MovieChange(3L, false, 2, null));
+        when(movieRepository.updateAll(changes)).thenReturn(new int[]{1, 0, 0});
+        when(movieRepository.findExistingIds(List.of(2L, 3L))).thenReturn(List.of(2L));
+
+        // Act
+        BulkUpdateResponse response = movieService.updateMovies(changes);
+
+        // Assert
+        assertThat(response).isEqualTo(new BulkUpdateResponse(1, List.of(3L), List.of(2L)));
+    }
+
+    @Test
+    void updateMovies_ShouldRejectChangeWithoutValues() {
+        assertThatThrownBy(() -> movieService.updateMovies(List.of(new MovieChange(1L, null, null, null))))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    void addMovieByTitle_WithDeferredEnrichment_ShouldSaveOmdbDataAndScheduleEnrichment() {
+        // Arrange
+        Movie core = Movie.builder().title("Inception").year("2010").enrichmentStatus(Movie.EnrichmentStatus.PENDING).build();
+        when(movieRepository.findFirstByNormalizedTitleOrderByIdAsc("inception")).thenReturn(Optional.empty());
+        when(movieDataFetcher.fetchCoreMovie("Inception")).thenReturn(core);
+        when(movieRepository.findByNormalizedTitleAndYear("inception", "2010")).thenReturn(Optional.empty());
+        when(movieRepository.save(core)).thenAnswer(invocation -> {
+            core.setId(8L);
+            return core;
+        });
+
+        // Act
+        Movie result = movieService.addMovieByTitle("Inception", false, true);
+
+        // Assert
+        assertThat(result.getId()).isEqualTo(8L);
+        assertThat(result.getEnrichmentStatus()).isEqualTo(Movie.EnrichmentStatus.PENDING);
+        verify(enrichmentService).schedule(core);
+        verify(movieDataFetcher, never()).fetchAndBuildMovie(any());
+    }
+
+    @Test
+    void getMovieById_ShouldServeRepeatedReadsFromCache() {
+        // Arrange
+        when(movieRepository.findById(1L)).thenReturn(Optional.of(Movie.builder().id(1L).title("Inception").build()));
+
+        // Act
+        Optional<Movie> first = movieService.getMovieById(1L);
+        Optional<Movie> second = movieService.getMovieById(1L);
+
+        // Assert
+        assertThat(first).isEqualTo(second);
+        assertThat(second.get().getTitle()).isEqualTo("Inception");
+        verify(movieRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void updateWatched_ShouldEvictCachedMovie() {
+        // Arrange
+        when(movieRepository.findById(1L))
+                .thenReturn(Optional.of(Movie.builder().id(1L).watched(false).version(0L).build()))
+                .thenReturn(Optional.of(Movie.builder().id(1L).watched(true).version(1L).build()));
+        when(movieRepository.updateWatchedReturningVersion(1L, true, null)).thenReturn(Optional.of(1L));
+        movieService.getMovieById(1L);
+
+        // Act
+        movieService.updateWatched(1L, true, null);
+        Optional<Movie> result = movieService.getMovieById(1L);
+
+        // Assert
+        assertThat(result.get().isWatched()).isTrue();
+        verify(movieRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void getMovieJson_ShouldEncodeMovieOncePerChange() throws Exception {
+        // Arrange
+        when(movieRepository.findById(1L))
+                .thenReturn(Optional.of(Movie.builder().id(1L).title("Inception").rating(3).build()))
+                .thenReturn(Optional.of(Movie.builder().id(1L).title("Inception").rating(5).build()));
+        when(movieRepository.updateRatingReturningVersion(1L, 5, null)).thenReturn(Optional.of(1L));
 
         // Act
-        Optional<Movie> result = movieService.updateRating(2L, 5);
+        MovieCache.EncodedMovie first = movieService.getMovieJson(1L).orElseThrow();
+        MovieCache.EncodedMovie second = movieService.getMovieJson(1L).orElseThrow();
+        movieService.updateRating(1L, 5, null);
+        MovieCache.EncodedMovie afterUpdate = movieService.getMovieJson(1L).orElseThrow();
 
         // Assert
-        assertThat(result).isPresent();
-        assertThat(result.get().getRating()).isEqualTo(5);
+        assertThat(second).isSameAs(first);
+        assertThat(objectMapper.readValue(first.json(), Movie.class).getRating()).isEqualTo(3);
+        assertThat(objectMapper.readValue(afterUpdate.json(), Movie.class).getRating()).isEqualTo(5);
+        verify(objectMapper, times(2)).writeValueAsBytes(any(Movie.class));
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,11 @@ package com.example.moviefinder.util;
 
 import com.example.moviefinder.exceptions.OmdbApiException;
 import com.example.moviefinder.exceptions.TmdbApiException;
+import com.example.moviefinder.exceptions.TooManyRequestsException;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class ExceptionClassTest {
@@ -25,4 +28,12 @@ public class ExceptionClassTest {
         assertThat(ex.getMessage()).isEqualTo("TMDb failure");
         assertThat(ex.getCause()).isEqualTo(cause);
     }
-}
\ No newline at end of file
+
+    @Test
+    void tooManyRequestsException_ShouldStoreMessageAndRetryAfter() {
+        TooManyRequestsException ex = new TooManyRequestsException("Queue full", Duration.ofSeconds(5));
+
+        assertThat(ex.getMessage()).isEqualTo("Queue full");
+        assertThat(ex.getRetryAfter()).isEqualTo(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.ConnectionPoolTimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class HostConnectionPoolTest {
+
+    @Test
+    void intercept_ShouldReleasePermitWhenResponseIsClosed() {
+        HostConnectionPool pool = new HostConnectionPool(1, Duration.ofMillis(50));
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(pool);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo("https://api.example.com/a")).andRespond(withSuccess("a", MediaType.TEXT_PLAIN));
+        server.expect(requestTo("https://api.example.com/b")).andRespond(withSuccess("b", MediaType.TEXT_PLAIN));
+
+        restTemplate.getForObject("https://api.example.com/a", String.class);
+        restTemplate.getForObject("https://api.example.com/b", String.class);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) pool.stats().get("api.example.com");
+        assertThat(stats).containsEntry("inUse", 0).containsEntry("acquired", 2L).containsEntry("timeouts", 0L);
+    }
+
+    @Test
+    void intercept_ShouldFailWhenNoPermitBecomesAvailable() throws Exception {
+        HostConnectionPool pool = new HostConnectionPool(1, Duration.ofMillis(50));
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://api.example.com/a"));
+        ClientHttpResponse open = pool.intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+        assertThatThrownBy(() -> pool.intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK)))
+                .isInstanceOf(ConnectionPoolTimeoutException.class);
+
+        open.close();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) pool.stats().get("api.example.com");
+        assertThat(stats).containsEntry("inUse", 0).containsEntry("timeouts", 1L);
+    }
+
+    @Test
+    void gzipDecodingInterceptor_ShouldRequestAndDecodeGzip() throws Exception {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new GzipDecodingInterceptor());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("{\"Title\":\"Inception\"}".getBytes());
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        server.expect(requestTo("https://api.example.com/movie"))
+                .andExpect(header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andRespond(withSuccess(compressed.toByteArray(), MediaType.APPLICATION_JSON).headers(headers));
+
+        assertThat(restTemplate.getForObject("https://api.example.com/movie", String.class))
+                .isEqualTo("{\"Title\":\"Inception\"}");
+    }
+}
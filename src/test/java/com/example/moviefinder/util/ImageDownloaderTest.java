@@ -0,0 +1,174 @@
+package com.example.moviefinder.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImageDownloaderTest {
+
+    @TempDir
+    Path root;
+
+    @Mock
+    private HttpClient httpClient;
+
+    private ImageStore imageStore;
+    private ImageDownloader imageDownloader;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = new ImageStore(root, DataSize.ofMegabytes(1));
+        ThumbnailGenerator thumbnailGenerator = new ThumbnailGenerator(imageStore, task -> { }, "thumb=100", 0.8f);
+        RateLimiter rateLimiter = new RateLimiter("TMDb", 100, 10, Duration.ofSeconds(1), Duration.ofSeconds(1), 0);
+        imageDownloader = new ImageDownloader(imageStore, thumbnailGenerator, rateLimiter, httpClient,
+                Duration.ofSeconds(5), false);
+    }
+
+    @Test
+    void downloadImages_ShouldStoreDownloadedImages() throws Exception {
+        when(httpClient.sendAsync(any(), any())).thenAnswer(invocation -> respond(invocation, 200, "backdrop"));
+
+        List<String> keys = imageDownloader.downloadImages(List.of("/a.jpg"), "Inception");
+
+        assertThat(keys).hasSize(1);
+        assertThat(Files.readString(imageStore.resolve(keys.get(0)).orElseThrow())).isEqualTo("backdrop");
+        assertThat(imageStore.findBySource("/a.jpg")).contains(keys.get(0));
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void downloadImages_ShouldDeletePartFileOnErrorStatus() throws Exception {
+        when(httpClient.sendAsync(any(), any())).thenAnswer(invocation -> respond(invocation, 404, "not found"));
+
+        List<String> keys = imageDownloader.downloadImages(List.of("/a.jpg"), "Inception");
+
+        assertThat(keys).isEmpty();
+        assertThat(partFiles()).isEmpty();
+        assertThat(imageStore.stats()).containsEntry("images", 0);
+    }
+
+    @Test
+    void downloadImages_ShouldNotDownloadImagesAlreadyStored() throws Exception {
+        String stored = imageStore.store(Files.writeString(imageStore.createTempFile(), "backdrop"), ".jpg", "/a.jpg");
+
+        List<String> keys = imageDownloader.downloadImages(List.of("/a.jpg"), "Inception");
+
+        assertThat(keys).containsExactly(stored);
+        verifyNoInteractions(httpClient);
+    }
+
+    private List<Path> partFiles() throws Exception {
+        try (Stream<Path> files = Files.list(root.resolve("tmp"))) {
+            return files.toList();
+        }
+    }
+
+    /**
+     * Answers a {@code sendAsync} call by feeding the body through the request's body handler,
+     * as the HTTP client would.
+     */
+    private static CompletableFuture<HttpResponse<Path>> respond(InvocationOnMock invocation, int status, String body) {
+        HttpRequest request = invocation.getArgument(0);
+        HttpResponse.BodyHandler<Path> handler = invocation.getArgument(1);
+        HttpHeaders headers = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+        HttpResponse.BodySubscriber<Path> subscriber = handler.apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return status;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        });
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onNext(List.of(ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8))));
+        subscriber.onComplete();
+
+        return subscriber.getBody().toCompletableFuture().thenApply(file -> new HttpResponse<Path>() {
+            @Override
+            public int statusCode() {
+                return status;
+            }
+
+            @Override
+            public HttpRequest request() {
+                return request;
+            }
+
+            @Override
+            public Optional<HttpResponse<Path>> previousResponse() {
+                return Optional.empty();
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public Path body() {
+                return file;
+            }
+
+            @Override
+            public Optional<SSLSession> sslSession() {
+                return Optional.empty();
+            }
+
+            @Override
+            public URI uri() {
+                return request.uri();
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        });
+    }
+}
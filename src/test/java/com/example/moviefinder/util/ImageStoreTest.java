@@ -0,0 +1,96 @@
+package com.example.moviefinder.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void store_ShouldKeepIdenticalContentOnce() throws Exception {
+        ImageStore store = new ImageStore(root, DataSize.ofMegabytes(1));
+
+        String first = store.store(write(store, "backdrop"), ".jpg", "/a.jpg");
+        String second = store.store(write(store, "backdrop"), ".jpg", "/b.jpg");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(store.resolve(first)).isPresent();
+        assertThat(store.findBySource("/b.jpg")).contains(first);
+        assertThat(store.stats()).containsEntry("images", 1).containsEntry("totalBytes", 8L);
+    }
+
+    @Test
+    void store_ShouldEvictLeastRecentlyUsedImageWhenQuotaIsExceeded() throws Exception {
+        ImageStore store = new ImageStore(root, DataSize.ofBytes(20));
+
+        String first = store.store(write(store, "0123456789"), ".jpg", "/first.jpg");
+        String second = store.store(write(store, "abcdefghij"), ".jpg", "/second.jpg");
+        store.resolve(first); // "second" becomes the least recently used image
+        String third = store.store(write(store, "ABCDEFGHIJ"), ".jpg", "/third.jpg");
+
+        assertThat(store.resolve(first)).isPresent();
+        assertThat(store.resolve(second)).isEmpty();
+        assertThat(store.resolve(third)).isPresent();
+        assertThat(store.findBySource("/second.jpg")).isEmpty();
+        assertThat(store.stats()).containsEntry("evictions", 1L).containsEntry("totalBytes", 20L);
+    }
+
+    @Test
+    void constructor_ShouldIndexImagesAlreadyOnDisk() throws Exception {
+        String key = new ImageStore(root, DataSize.ofMegabytes(1))
+                .store(Files.writeString(root.resolve("tmp").resolve("x.part"), "backdrop"), ".jpg", null);
+
+        ImageStore reopened = new ImageStore(root, DataSize.ofMegabytes(1));
+
+        assertThat(reopened.resolve(key)).isPresent();
+        assertThat(reopened.resolve("../../etc/passwd")).isEmpty();
+    }
+
+    @Test
+    void constructor_ShouldRestoreSourcesOfStoredImages() throws Exception {
+        ImageStore store = new ImageStore(root, DataSize.ofBytes(20));
+        String first = store.store(write(store, "0123456789"), ".jpg", "/first.jpg");
+        store.store(write(store, "abcdefghij"), ".jpg", "/second.jpg");
+        store.store(write(store, "ABCDEFGHIJ"), ".jpg", "/third.jpg"); // evicts "first"
+
+        ImageStore reopened = new ImageStore(root, DataSize.ofBytes(20));
+
+        assertThat(reopened.findBySource("/first.jpg")).isEmpty();
+        assertThat(reopened.findBySource("/second.jpg")).isPresent();
+        assertThat(reopened.findBySource("/third.jpg")).isPresent();
+        assertThat(Files.readString(root.resolve("sources.tsv"))).doesNotContain(first);
+    }
+
+    @Test
+    void resolve_ShouldPersistLastUseOnlyOncePerInterval() throws Exception {
+        ImageStore store = new ImageStore(root, DataSize.ofMegabytes(1));
+        String key = store.store(write(store, "backdrop"), ".jpg", null);
+        Path file = store.resolve(key).orElseThrow();
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(1)));
+        Files.setLastModifiedTime(file, old);
+        ImageStore reopened = new ImageStore(root, DataSize.ofMegabytes(1));
+
+        assertThat(reopened.resolve(key)).contains(file);
+        FileTime persisted = Files.getLastModifiedTime(file);
+        Files.setLastModifiedTime(file, old);
+        reopened.resolve(key);
+
+        assertThat(persisted).isGreaterThan(old);
+        assertThat(Files.getLastModifiedTime(file)).isEqualTo(old);
+    }
+
+    private static Path write(ImageStore store, String content) throws Exception {
+        return Files.writeString(store.createTempFile(), content);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.moviefinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_ShouldReturnEncodedId() {
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(42L))).isEqualTo(42L);
+    }
+
+    @Test
+    void decode_ShouldStartAtBeginningForEmptyToken() {
+        assertThat(KeysetCursor.decode("")).isZero();
+        assertThat(KeysetCursor.decode(null)).isZero();
+    }
+
+    @Test
+    void decode_ShouldRejectInvalidTokens() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("42")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.model.Movie;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark comparing time and allocation per movie of building a {@link Movie} from a combined TMDb
+ * response through an {@code org.json} tree versus the streaming {@link TmdbDetailsParser}.
+ * <p>
+ * The response is a synthetic payload the size of a popular movie's (hundreds of backdrops and
+ * similar titles). Disabled by default; run with:
+ * {@code ./mvnw test -Dtest=MovieBuilderBenchmarkTest -DloadTests=true}
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+class MovieBuilderBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    private final MovieBuilder movieBuilder = new MovieBuilder();
+    private final JSONObject omdbData = new JSONObject().put("Title", "Inception").put("Actors", "Leonardo DiCaprio");
+    private final String response = combinedResponse();
+
+    @Test
+    void streamingParser_ShouldAllocateLessThanJsonTree() {
+        Result tree = measure("org.json tree", () -> {
+            JSONObject details = new JSONObject(response);
+            return movieBuilder.buildMovie(omdbData, new TmdbDetails(
+                    firstValues(details.getJSONObject("images").getJSONArray("backdrops"), "file_path"),
+                    firstValues(details.getJSONObject("keywords").getJSONArray("keywords"), "name"),
+                    firstValues(details.getJSONObject("similar").getJSONArray("results"), "title"),
+                    List.of()), List.of());
+        });
+        Result streaming = measure("streaming parser", () ->
+                movieBuilder.buildMovie(omdbData, TmdbDetailsParser.parse(response), List.of()));
+
+        System.out.printf("response size: %d KB%n", response.length() / 1024);
+        System.out.println(tree);
+        System.out.println(streaming);
+        assertThat(streaming.bytesPerOp()).isLessThan(tree.bytesPerOp());
+    }
+
+    private Result measure(String name, Supplier<Movie> operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.get();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        Movie last = null;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            last = operation.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertThat(last.getKeywords()).isEqualTo("keyword 0, keyword 1, keyword 2");
+        return new Result(name, elapsed / 1_000.0 / MEASURED_ITERATIONS, allocated / MEASURED_ITERATIONS);
+    }
+
+    private static List<String> firstValues(JSONArray array, String key) {
+        return IntStream.range(0, Math.min(TmdbDetailsParser.LIMIT, array.length()))
+                .mapToObj(i -> array.getJSONObject(i).optString(key))
+                .toList();
+    }
+
+    private static String combinedResponse() {
+        JSONArray backdrops = new JSONArray();
+        for (int i = 0; i < 300; i++) {
+            backdrops.put(new JSONObject().put("file_path", "/backdrop" + i + ".jpg").put("width", 1920)
+                    .put("height", 1080).put("aspect_ratio", 1.778).put("vote_average", 5.3).put("iso_639_1", "en"));
+        }
+        JSONArray keywords = new JSONArray();
+        for (int i = 0; i < 50; i++) {
+            keywords.put(new JSONObject().put("id", i).put("name", "keyword " + i));
+        }
+        JSONArray similar = new JSONArray();
+        for (int i = 0; i < 100; i++) {
+            similar.put(new JSONObject().put("title", "Similar " + i).put("overview", "A long overview. ".repeat(20))
+                    .put("genre_ids", new JSONArray(List.of(28, 878))).put("popularity", 42.5));
+        }
+        return new JSONObject()
+                .put("id", 27205)
+                .put("title", "Inception")
+                .put("overview", "A thief who steals corporate secrets. ".repeat(10))
+                .put("images", new JSONObject().put("backdrops", backdrops).put("posters", backdrops))
+                .put("keywords", new JSONObject().put("keywords", keywords))
+                .put("similar", new JSONObject().put("results", similar))
+                .toString();
+    }
+
+    private record Result(String name, double microsPerOp, long bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("%-17s %8.1f µs/op %10d B/op", name, microsPerOp, bytesPerOp);
+        }
+    }
+}
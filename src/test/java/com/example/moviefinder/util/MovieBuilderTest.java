@@ -29,19 +29,12 @@ class MovieBuilderTest {
                 .put("imdbRating", "8.8")
                 .put("BoxOffice", "$829,895,144");
 
-        JSONObject tmdbSearchResult = new JSONObject(); // unused
-        JSONObject keywords = new JSONObject().put("keywords", new JSONArray()
-                .put(new JSONObject().put("name", "dream"))
-                .put(new JSONObject().put("name", "subconscious")));
-        JSONObject similar = new JSONObject().put("results", new JSONArray()
-                .put(new JSONObject().put("title", "The Matrix")));
-        JSONObject providers = new JSONObject().put("results", new JSONObject()
-                .put("US", new JSONObject().put("flatrate", new JSONArray()
-                        .put(new JSONObject().put("provider_name", "Netflix")))));
+        TmdbDetails details = new TmdbDetails(List.of("/a.jpg", "/b.jpg"), List.of("dream", "subconscious"),
+                List.of("The Matrix"), List.of("Netflix"));
 
         List<String> imagePaths = List.of("path1.jpg", "path2.jpg");
 
-        Movie result = movieBuilder.buildMovie(omdbData, tmdbSearchResult, new JSONObject(), keywords, similar, providers, imagePaths);
+        Movie result = movieBuilder.buildMovie(omdbData, details, imagePaths);
 
         assertThat(result.getTitle()).isEqualTo("Inception");
         assertThat(result.getActors()).contains("Leonardo DiCaprio");
@@ -50,4 +43,47 @@ class MovieBuilderTest {
         assertThat(result.getWatchProviders()).contains("Netflix");
         assertThat(result.getImagePath1()).isEqualTo("path1.jpg");
     }
-}
\ No newline at end of file
+
+    @Test
+    void buildMovie_ShouldUseDetailsParsedFromCombinedResponse() {
+        JSONObject omdbData = new JSONObject()
+                .put("Title", "Inception")
+                .put("Actors", "Leonardo DiCaprio");
+
+        JSONObject details = new JSONObject()
+                .put("id", 27205)
+                .put("keywords", new JSONObject().put("keywords", new JSONArray()
+                        .put(new JSONObject().put("name", "dream"))))
+                .put("similar", new JSONObject().put("results", new JSONArray()
+                        .put(new JSONObject().put("title", "The Matrix"))));
+
+        Movie result = movieBuilder.buildMovie(omdbData, TmdbDetailsParser.parse(details.toString()), List.of());
+
+        assertThat(result.getKeywords()).isEqualTo("dream");
+        assertThat(result.getSimilarMovies()).isEqualTo("The Matrix");
+        assertThat(result.getWatchProviders()).isEmpty();
+        assertThat(result.getImagePath1()).isNull();
+    }
+
+    @Test
+    void buildCoreMovie_ShouldLeaveTmdbFieldsForEnrichment() {
+        JSONObject omdbData = new JSONObject().put("Title", "Inception").put("Year", "2010").put("Actors", "Leonardo DiCaprio");
+
+        Movie movie = movieBuilder.buildCoreMovie(omdbData);
+
+        assertThat(movie.getTitle()).isEqualTo("Inception");
+        assertThat(movie.getKeywords()).isNull();
+        assertThat(movie.getImagePath1()).isNull();
+        assertThat(movie.getEnrichmentStatus()).isEqualTo(Movie.EnrichmentStatus.PENDING);
+
+        movieBuilder.applyTmdbDetails(movie, new TmdbDetails(List.of("/a.jpg"), List.of("dream", "heist", "mind", "thief"),
+                List.of("The Matrix"), List.of("Netflix", "Max")), List.of("image1.jpg"));
+
+        assertThat(movie.getKeywords()).isEqualTo("dream, heist, mind");
+        assertThat(movie.getSimilarMovies()).isEqualTo("The Matrix");
+        assertThat(movie.getWatchProviders()).isEqualTo("Netflix, Max");
+        assertThat(movie.getImagePath1()).isEqualTo("image1.jpg");
+        assertThat(movie.getImagePath2()).isNull();
+        assertThat(movie.getEnrichmentStatus()).isEqualTo(Movie.EnrichmentStatus.COMPLETE);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieCacheTest {
+
+    @Test
+    void get_ShouldReturnCopiesOfCachedMovie() {
+        MovieCache cache = new MovieCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        Movie first = cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(Movie.builder().id(id).title("Inception").build());
+        }).orElseThrow();
+        first.setTitle("Changed by caller");
+        Movie second = cache.get(1L, id -> Optional.empty()).orElseThrow();
+
+        assertThat(second.getTitle()).isEqualTo("Inception");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("hitRatio", 0.5);
+    }
+
+    @Test
+    void get_ShouldNotCacheMovieEvictedWhileLoading() {
+        MovieCache cache = new MovieCache(10, Duration.ofMinutes(1));
+
+        // The row is read, then changed and evicted before the read completes
+        cache.get(1L, id -> {
+            cache.evict(id);
+            return Optional.of(Movie.builder().id(id).watched(false).build());
+        });
+        Movie reloaded = cache.get(1L, id -> Optional.of(Movie.builder().id(id).watched(true).build())).orElseThrow();
+
+        assertThat(reloaded.isWatched()).isTrue();
+        assertThat(cache.stats()).containsEntry("invalidations", 1L);
+    }
+
+    @Test
+    void get_ShouldCacheMovieLoadedWhileAnotherWasEvicted() {
+        MovieCache cache = new MovieCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.get(1L, id -> {
+                loads.incrementAndGet();
+                cache.evict(2L);
+                return Optional.of(Movie.builder().id(id).build());
+            });
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats()).containsEntry("invalidations", 1L);
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingMovie() {
+        MovieCache cache = new MovieCache(10, Duration.ofMinutes(1));
+        cache.get(1L, id -> Optional.empty());
+
+        assertThat(cache.get(1L, id -> Optional.of(Movie.builder().id(id).build()))).isPresent();
+    }
+
+    @Test
+    void getEncoded_ShouldEncodeOnceUntilMovieIsEvicted() {
+        MovieCache cache = new MovieCache(10, Duration.ofMinutes(1));
+        AtomicInteger encodings = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            cache.getEncoded(1L, id -> Optional.of(Movie.builder().id(id).build()), movie -> {
+                encodings.incrementAndGet();
+                return MovieCache.EncodedMovie.of("{}".getBytes(StandardCharsets.UTF_8), 1024);
+            });
+        }
+        assertThat(encodings).hasValue(1);
+
+        cache.evict(1L);
+        cache.getEncoded(1L, id -> Optional.of(Movie.builder().id(id).build()), movie -> {
+            encodings.incrementAndGet();
+            return MovieCache.EncodedMovie.of("{}".getBytes(StandardCharsets.UTF_8), 1024);
+        });
+        assertThat(encodings).hasValue(2);
+    }
+
+    @Test
+    void encodedMovie_ShouldCompressOnlyLargeBodies() throws IOException {
+        byte[] small = "{\"title\":\"Inception\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] large = ("{\"plot\":\"" + "dream ".repeat(500) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+        assertThat(MovieCache.EncodedMovie.of(small, 1024).gzipped()).isNull();
+
+        MovieCache.EncodedMovie encoded = MovieCache.EncodedMovie.of(large, 1024);
+        assertThat(encoded.gzipped().length).isLessThan(large.length);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(encoded.gzipped()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(large);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.moviefinder.util;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test measuring ingest throughput of {@code POST /movies} at 1, 16 and 256 concurrent callers.
+ * <p>
+ * Requests go through the web server, the service and the configured ingest executor into an in-memory
+ * database; only the upstream clients are replaced with mocks that answer after a fixed latency, so the
+ * numbers show how well the ingest executor overlaps I/O wait. Every request adds a new title. The test
+ * fails if 16 callers get less than six times the single-caller throughput, or if 256 callers, which keep
+ * every executor thread busy, get clearly less than 16. Disabled by default; run with:
+ * {@code ./mvnw test -Dtest=MovieDataFetcherLoadTest -DloadTests=true}
+ * (add {@code -Dmoviefinder.executor.virtual-threads=true} on Java 21+ to measure virtual threads).
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "server.tomcat.threads.max=300"
+})
+class MovieDataFetcherLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieDataFetcherLoadTest.class);
+
+    private static final long UPSTREAM_LATENCY_MS = 50;
+    private static final int INGESTS_PER_CALLER = 4;
+
+    private final AtomicInteger titles = new AtomicInteger();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Value("${moviefinder.executor.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @MockitoBean
+    private OmdbClient omdbClient;
+
+    @MockitoBean
+    private TmdbClient tmdbClient;
+
+    @MockitoBean
+    private ImageDownloader imageDownloader;
+
+    @Test
+    void addMovieThroughput_ShouldScaleWithConcurrentCallers() throws Exception {
+        when(omdbClient.fetchMovieData(anyString())).thenAnswer(invocation -> delayed(new JSONObject()
+                .put("Title", invocation.getArgument(0, String.class))
+                .put("Year", "2010")));
+        when(tmdbClient.searchMovie(anyString()))
+                .thenAnswer(invocation -> delayed(new JSONObject().put("results", List.of(new JSONObject().put("id", 1)))));
+        when(tmdbClient.fetchCombinedDetails(anyInt()))
+                .thenAnswer(invocation -> delayed(new TmdbDetails(List.of("/backdrop.jpg"), List.of(), List.of(), List.of())));
+        when(imageDownloader.downloadImages(any(), anyString()))
+                .thenAnswer(invocation -> delayed(List.of()));
+
+        double single = measureThroughput(1);
+        double sixteen = measureThroughput(16);
+        double many = measureThroughput(256);
+
+        log.info("virtualThreads={} ingests/s: 1={} 16={} 256={}", virtualThreads,
+                String.format("%.1f", single), String.format("%.1f", sixteen), String.format("%.1f", many));
+        // 16 callers overlap their upstream calls on the executor, which gives about 10 times the single-caller rate
+        assertThat(sixteen).isGreaterThan(single * 6);
+        // 256 callers keep every executor thread busy and overflow into its queue;
+        // throughput must stay at least at the 16-caller level instead of collapsing
+        assertThat(many).isGreaterThan(sixteen * 0.8);
+    }
+
+    private double measureThroughput(int callers) throws Exception {
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                calls.add(callerPool.submit(() -> {
+                    for (int n = 0; n < INGESTS_PER_CALLER; n++) {
+                        String url = "http://localhost:" + port + "/movies?title=load-test-" + titles.incrementAndGet();
+                        ResponseEntity<String> response = restTemplate.postForEntity(url, null, String.class);
+                        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            return callers * INGESTS_PER_CALLER / seconds;
+        } finally {
+            callerPool.shutdownNow();
+        }
+    }
+
+    private static <T> T delayed(T value) throws InterruptedException {
+        Thread.sleep(UPSTREAM_LATENCY_MS);
+        return value;
+    }
+}
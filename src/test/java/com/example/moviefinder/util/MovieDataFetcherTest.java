@@ -1,13 +1,23 @@
 package com.example.moviefinder.util;
 
+import com.example.moviefinder.exceptions.OmdbApiException;
+import com.example.moviefinder.exceptions.TmdbApiException;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
 import com.example.moviefinder.model.Movie;
 import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class MovieDataFetcherTest {
@@ -16,16 +26,23 @@ class MovieDataFetcherTest {
     private TmdbClient tmdbClient;
     private ImageDownloader imageDownloader;
     private MovieBuilder movieBuilder;
+    private ExecutorService executor;
     private MovieDataFetcher fetcher;
 
     @BeforeEach
     void setUp() {
+        executor = Executors.newFixedThreadPool(4);
         omdbClient = mock(OmdbClient.class);
         tmdbClient = mock(TmdbClient.class);
         imageDownloader = mock(ImageDownloader.class);
         movieBuilder = mock(MovieBuilder.class);
 
-        fetcher = new MovieDataFetcher(omdbClient, tmdbClient, imageDownloader, movieBuilder);
+        fetcher = new MovieDataFetcher(omdbClient, tmdbClient, imageDownloader, movieBuilder, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
     }
 
     @Test
@@ -35,21 +52,114 @@ class MovieDataFetcherTest {
         JSONObject omdbJson = new JSONObject().put("Title", title);
         JSONObject searchResult = new JSONObject()
                 .put("results", List.of(new JSONObject().put("id", 1234)));
-        JSONObject dummyData = new JSONObject(); // minimal placeholder
+        TmdbDetails details = new TmdbDetails(List.of("/backdrop.jpg"), List.of(), List.of(), List.of());
 
         when(omdbClient.fetchMovieData(title)).thenReturn(omdbJson);
         when(tmdbClient.searchMovie(title)).thenReturn(searchResult);
-        when(tmdbClient.fetchMovieDetails(1234, "images")).thenReturn(dummyData);
-        when(tmdbClient.fetchMovieDetails(1234, "keywords")).thenReturn(dummyData);
-        when(tmdbClient.fetchMovieDetails(1234, "similar")).thenReturn(dummyData);
-        when(tmdbClient.fetchMovieDetails(1234, "watch/providers")).thenReturn(dummyData);
-        when(imageDownloader.downloadImages(any(), eq(title))).thenReturn(List.of("image1.jpg"));
+        when(tmdbClient.fetchCombinedDetails(1234)).thenReturn(details);
+        when(imageDownloader.downloadImages(List.of("/backdrop.jpg"), title)).thenReturn(List.of("image1.jpg"));
         Movie mockMovie = Movie.builder().title(title).build();
-        when(movieBuilder.buildMovie(any(), any(), any(), any(), any(), any(), any())).thenReturn(mockMovie);
+        when(movieBuilder.buildMovie(any(), any(), any())).thenReturn(mockMovie);
 
         Movie result = fetcher.fetchAndBuildMovie(title);
 
         assertThat(result).isNotNull();
         assertThat(result.getTitle()).isEqualTo("Inception");
+        verify(tmdbClient, times(1)).fetchCombinedDetails(1234);
+    }
+
+    @Test
+    void fetchAndBuildMovie_ShouldPropagateOmdbFailure() {
+        String title = "Inception";
+        when(omdbClient.fetchMovieData(title)).thenThrow(new OmdbApiException("OMDb error: Movie not found!"));
+        when(tmdbClient.searchMovie(title)).thenReturn(new JSONObject()
+                .put("results", List.of(new JSONObject().put("id", 1234))));
+        when(tmdbClient.fetchCombinedDetails(1234)).thenReturn(TmdbDetails.EMPTY);
+
+        assertThatThrownBy(() -> fetcher.fetchAndBuildMovie(title))
+                .isInstanceOf(OmdbApiException.class)
+                .hasMessageContaining("Movie not found!");
+        verify(imageDownloader, never()).downloadImages(any(), any());
+        verify(movieBuilder, never()).buildMovie(any(), any(), any());
+    }
+
+    @Test
+    void fetchAndBuildMovie_ShouldInterruptRunningStepsOnFailure() throws Exception {
+        String title = "Inception";
+        CountDownLatch searchStarted = new CountDownLatch(1);
+        CountDownLatch searchInterrupted = new CountDownLatch(1);
+        when(tmdbClient.searchMovie(title)).thenAnswer(invocation -> {
+            searchStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                searchInterrupted.countDown();
+                throw new UpstreamUnavailableException("tmdb", "Interrupted", Duration.ZERO);
+            }
+            return new JSONObject().put("results", List.of(new JSONObject().put("id", 1234)));
+        });
+        when(omdbClient.fetchMovieData(title)).thenAnswer(invocation -> {
+            searchStarted.await();
+            throw new OmdbApiException("OMDb error: Movie not found!");
+        });
+
+        assertThatThrownBy(() -> fetcher.fetchAndBuildMovie(title))
+                .isInstanceOf(OmdbApiException.class);
+
+        assertThat(searchInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(tmdbClient, never()).fetchCombinedDetails(anyInt());
+    }
+
+    @Test
+    void fetchAndBuildMovie_ShouldFailWhenTmdbSearchIsEmpty() {
+        String title = "Inception";
+        when(omdbClient.fetchMovieData(title)).thenReturn(new JSONObject().put("Title", title));
+        when(tmdbClient.searchMovie(title)).thenReturn(new JSONObject().put("results", List.of()));
+
+        assertThatThrownBy(() -> fetcher.fetchAndBuildMovie(title))
+                .isInstanceOf(TmdbApiException.class)
+                .hasMessageContaining("No TMDB results found");
+        verify(tmdbClient, never()).fetchCombinedDetails(anyInt());
+    }
+
+    @Test
+    void fetchAndBuildMovie_ShouldBuildFromOmdbOnlyWhenTmdbIsUnavailable() {
+        String title = "Inception";
+        JSONObject omdbJson = new JSONObject().put("Title", title);
+        when(omdbClient.fetchMovieData(title)).thenReturn(omdbJson);
+        when(tmdbClient.searchMovie(title))
+                .thenThrow(new UpstreamUnavailableException("tmdb", "Circuit breaker for tmdb is open", Duration.ofSeconds(30)));
+        Movie omdbOnly = Movie.builder().title(title).build();
+        when(movieBuilder.buildMovie(omdbJson, TmdbDetails.EMPTY, List.of())).thenReturn(omdbOnly);
+
+        assertThat(fetcher.fetchAndBuildMovie(title)).isSameAs(omdbOnly);
+        assertThat(omdbOnly.getEnrichmentStatus()).isEqualTo(Movie.EnrichmentStatus.FAILED);
+        verify(imageDownloader, never()).downloadImages(any(), any());
+    }
+
+    @Test
+    void fetchCoreMovie_ShouldOnlyCallOmdb() {
+        String title = "Inception";
+        JSONObject omdbJson = new JSONObject().put("Title", title);
+        Movie core = Movie.builder().title(title).enrichmentStatus(Movie.EnrichmentStatus.PENDING).build();
+        when(omdbClient.fetchMovieData(title)).thenReturn(omdbJson);
+        when(movieBuilder.buildCoreMovie(omdbJson)).thenReturn(core);
+
+        assertThat(fetcher.fetchCoreMovie(title)).isSameAs(core);
+        verifyNoInteractions(tmdbClient, imageDownloader);
+    }
+
+    @Test
+    void enrichMovie_ShouldApplyTmdbDetailsAndImages() {
+        Movie movie = Movie.builder().title("Inception").enrichmentStatus(Movie.EnrichmentStatus.PENDING).build();
+        TmdbDetails details = new TmdbDetails(List.of("/backdrop.jpg"), List.of("dream"), List.of(), List.of());
+        when(tmdbClient.searchMovie("Inception")).thenReturn(new JSONObject()
+                .put("results", List.of(new JSONObject().put("id", 1234))));
+        when(tmdbClient.fetchCombinedDetails(1234)).thenReturn(details);
+        when(imageDownloader.downloadImages(List.of("/backdrop.jpg"), "Inception")).thenReturn(List.of("image1.jpg"));
+
+        assertThat(fetcher.enrichMovie(movie)).isSameAs(movie);
+        verify(movieBuilder).applyTmdbDetails(movie, details, List.of("image1.jpg"));
+        verifyNoInteractions(omdbClient);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    @Test
+    void acquire_ShouldQueueCallersAboveTheRate() {
+        RateLimiter limiter = new RateLimiter("tmdb", 50, 1, Duration.ofSeconds(1), Duration.ofMillis(100), 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // The first token is available immediately, the other five arrive every 20 ms
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(90);
+        assertThat(limiter.stats()).containsEntry("acquired", 6L).containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void acquire_ShouldRejectWhenTheWaitExceedsTheLimit() {
+        RateLimiter limiter = new RateLimiter("omdb", 1, 1, Duration.ofMillis(100), Duration.ofMillis(100), 0);
+        limiter.acquire();
+
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(UpstreamUnavailableException.class)
+                .hasMessageContaining("Rate limit for omdb reached");
+        assertThat(limiter.stats()).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void acquireAsync_ShouldQueueCallersWithoutBlockingThem() throws Exception {
+        RateLimiter limiter = new RateLimiter("tmdb", 50, 1, Duration.ofSeconds(1), Duration.ofMillis(100), 0);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> tokens = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tokens.add(limiter.acquireAsync());
+        }
+        long returnedMillis = (System.nanoTime() - start) / 1_000_000;
+        CompletableFuture.allOf(tokens.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(returnedMillis).isLessThan(80);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(90);
+        assertThat(limiter.stats()).containsEntry("acquired", 6L).containsEntry("delayed", 5L);
+    }
+
+    @Test
+    void acquireAsync_ShouldFailWhenTheWaitExceedsTheLimit() {
+        RateLimiter limiter = new RateLimiter("omdb", 1, 1, Duration.ofMillis(100), Duration.ofMillis(100), 0);
+        limiter.acquire();
+
+        assertThat(limiter.acquireAsync())
+                .failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(UpstreamUnavailableException.class);
+    }
+
+    @Test
+    void execute_ShouldRetryAfterTooManyRequestsAndHonorRetryAfter() {
+        RateLimiter limiter = new RateLimiter("tmdb", 100, 10, Duration.ofSeconds(5), Duration.ofMillis(100), 1);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        AtomicInteger calls = new AtomicInteger();
+
+        long start = System.nanoTime();
+        String result = limiter.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+            }
+            return "ok";
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(1000);
+        assertThat(limiter.stats()).containsEntry("throttled", 1L);
+    }
+
+    @Test
+    void tryAcquireSpare_ShouldLeaveReserveForInteractiveRequests() {
+        RateLimiter limiter = new RateLimiter("tmdb", 0.01, 4, Duration.ofMillis(100), Duration.ofSeconds(1), 0, 0.5);
+
+        assertThat(limiter.tryAcquireSpare()).isTrue();
+        assertThat(limiter.tryAcquireSpare()).isTrue();
+        // Only half of the burst is left, which is kept for interactive requests
+        assertThat(limiter.tryAcquireSpare()).isFalse();
+        limiter.acquire();
+
+        assertThat(limiter.stats())
+                .containsEntry("acquired", 3L)
+                .containsEntry("backgroundAcquired", 2L)
+                .containsEntry("backgroundDeclined", 1L);
+    }
+
+    @Test
+    void executeWithSpareCapacity_ShouldRejectWithoutWaitingAfterTooManyRequests() {
+        RateLimiter limiter = new RateLimiter("omdb", 100, 10, Duration.ofSeconds(5), Duration.ofSeconds(1), 2, 0.5);
+        limiter.onThrottled(Duration.ofMillis(10));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> limiter.executeWithSpareCapacity(() -> "ok"))
+                .isInstanceOf(UpstreamUnavailableException.class)
+                .hasMessageContaining("No spare omdb capacity");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(100);
+    }
+
+    @Test
+    void parseRetryAfter_ShouldAcceptSecondsAndIgnoreInvalidValues() {
+        assertThat(RateLimiter.parseRetryAfter("3")).isEqualTo(Duration.ofSeconds(3));
+        assertThat(RateLimiter.parseRetryAfter("soon")).isNull();
+        assertThat(RateLimiter.parseRetryAfter(null)).isNull();
+    }
+}
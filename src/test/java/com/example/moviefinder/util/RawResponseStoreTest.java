@@ -0,0 +1,67 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.model.RawResponse;
+import com.example.moviefinder.repository.RawResponseRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RawResponseStoreTest {
+
+    private final RawResponseRepository repository = mock(RawResponseRepository.class);
+
+    @Test
+    void save_ShouldStoreCompressedPayloadThatFindReturns() {
+        RawResponseStore store = new RawResponseStore(repository, true, false);
+        String payload = "{\"Title\":\"Inception\",\"Plot\":\"" + "dream ".repeat(200) + "\"}";
+
+        store.save("omdb", "t=inception", payload);
+
+        ArgumentCaptor<RawResponse> saved = ArgumentCaptor.forClass(RawResponse.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getId()).isEqualTo("omdb:t=inception");
+        assertThat(saved.getValue().getSize()).isEqualTo(payload.length());
+        assertThat(saved.getValue().getCompressedSize()).isLessThan(payload.length() / 10);
+
+        when(repository.findById("omdb:t=inception")).thenReturn(Optional.of(saved.getValue()));
+        RawResponseStore.StoredResponse stored = store.find("omdb", "t=inception");
+        assertThat(stored.payload()).isEqualTo(payload);
+        assertThat(stored.isFresh(Duration.ofHours(1))).isTrue();
+    }
+
+    @Test
+    void find_ShouldReadStoredResponsesOnlyWhenEnabledOrOffline() {
+        new RawResponseStore(repository, false, false).find("omdb", "t=inception");
+        verifyNoInteractions(repository);
+
+        RawResponseStore offline = new RawResponseStore(repository, false, true);
+        when(repository.findById("tmdb:search:inception")).thenReturn(Optional.of(new RawResponse("tmdb:search:inception",
+                "tmdb", Instant.now().minus(Duration.ofDays(30)), 2, 0, RawResponseStore.compress("{}"))));
+
+        RawResponseStore.StoredResponse stored = offline.find("tmdb", "search:inception");
+        assertThat(offline.isOffline()).isTrue();
+        assertThat(stored.payload()).isEqualTo("{}");
+        assertThat(stored.isFresh(Duration.ofHours(6))).isFalse();
+
+        offline.save("tmdb", "search:inception", "{}");
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void save_ShouldIgnoreDatabaseFailures() {
+        RawResponseStore store = new RawResponseStore(repository, true, false);
+        when(repository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        store.save("omdb", "t=inception", "{}");
+
+        assertThat(store.stats()).containsEntry("writes", 0L).containsEntry("failures", 1L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.moviefinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    @Test
+    void get_ShouldReturnValueUntilTtlExpires() {
+        MutableClock clock = new MutableClock();
+        ResponseCache<String, String> cache = new ResponseCache<>(10, clock);
+
+        cache.put("inception", "{}", Duration.ofMinutes(5));
+        assertThat(cache.get("inception")).isEqualTo("{}");
+
+        clock.advance(Duration.ofMinutes(6));
+        assertThat(cache.get("inception")).isNull();
+        assertThat(cache.stats())
+                .containsEntry("hits", 1L)
+                .containsEntry("misses", 1L)
+                .containsEntry("expirations", 1L);
+    }
+
+    @Test
+    void getStale_ShouldReturnExpiredValue() {
+        MutableClock clock = new MutableClock();
+        ResponseCache<String, String> cache = new ResponseCache<>(10, clock);
+
+        cache.put("inception", "{}", Duration.ofMinutes(5));
+        clock.advance(Duration.ofMinutes(6));
+
+        assertThat(cache.get("inception")).isNull();
+        assertThat(cache.getStale("inception")).isEqualTo("{}");
+        assertThat(cache.getStale("matrix")).isNull();
+        assertThat(cache.stats()).containsEntry("staleHits", 1L);
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedEntry() {
+        ResponseCache<String, String> cache = new ResponseCache<>(2);
+
+        cache.put("a", "1", Duration.ofHours(1));
+        cache.put("b", "2", Duration.ofHours(1));
+        cache.get("a"); // "b" becomes the least recently used entry
+        cache.put("c", "3", Duration.ofHours(1));
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+        assertThat(cache.stats()).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void put_ShouldIgnoreZeroTtl() {
+        ResponseCache<String, String> cache = new ResponseCache<>(2);
+
+        cache.put("a", "1", Duration.ZERO);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
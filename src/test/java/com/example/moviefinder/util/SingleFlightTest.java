@@ -0,0 +1,85 @@
+package com.example.moviefinder.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_ShouldShareOneCallBetweenConcurrentCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> singleFlight.execute("inception", () -> {
+                    calls.incrementAndGet();
+                    awaitQuietly(release);
+                    return "Inception";
+                })));
+            }
+
+            // Wait until the first caller is running, then give the others time to join it
+            while (calls.get() == 0) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Inception");
+            }
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(singleFlight.inFlightCount()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ShouldRunAgainAfterFailure() {
+        assertThatThrownBy(() -> singleFlight.execute("inception", () -> {
+            throw new IllegalStateException("upstream down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("inception", () -> "Inception")).isEqualTo("Inception");
+    }
+
+    @Test
+    void register_ShouldShareRegisteredCallWithLaterCallers() throws Exception {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        assertThat(singleFlight.register("inception", call)).isSameAs(call);
+        assertThat(singleFlight.register("inception", new CompletableFuture<>())).isSameAs(call);
+
+        CompletableFuture<String> joined = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("inception", () -> "refetched"));
+        call.complete("Inception");
+
+        assertThat(joined.get(5, TimeUnit.SECONDS)).isEqualTo("Inception");
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.moviefinder.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThumbnailGeneratorTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void scheduleVariants_ShouldStoreScaledJpegVariants() throws Exception {
+        ImageStore store = new ImageStore(root, DataSize.ofMegabytes(10));
+        ThumbnailGenerator generator = new ThumbnailGenerator(store, Runnable::run, "thumb=100,medium=500", 0.8f);
+        String key = store.store(writePng(store, 400, 200), ".png", null);
+
+        generator.scheduleVariants(key);
+
+        BufferedImage thumb = ImageIO.read(store.resolve(store.variantKey(key, "thumb")).orElseThrow().toFile());
+        assertThat(thumb.getWidth()).isEqualTo(100);
+        assertThat(thumb.getHeight()).isEqualTo(50);
+
+        // Images are never upscaled
+        BufferedImage medium = ImageIO.read(store.resolve(store.variantKey(key, "medium")).orElseThrow().toFile());
+        assertThat(medium.getWidth()).isEqualTo(400);
+        assertThat(store.stats()).containsEntry("images", 3);
+    }
+
+    @Test
+    void scheduleVariant_ShouldIgnoreUnknownSizes() throws Exception {
+        ImageStore store = new ImageStore(root, DataSize.ofMegabytes(10));
+        ThumbnailGenerator generator = new ThumbnailGenerator(store, Runnable::run, "thumb=100", 0.8f);
+        String key = store.store(writePng(store, 400, 200), ".png", null);
+
+        generator.scheduleVariant(key, "medium");
+
+        assertThat(store.stats()).containsEntry("images", 1);
+        assertThat(generator.sizes()).containsExactly("thumb", ThumbnailGenerator.ORIGINAL);
+    }
+
+    @Test
+    void constructor_ShouldRejectMalformedSizes() {
+        ImageStore store = new ImageStore(root, DataSize.ofMegabytes(10));
+
+        assertThatThrownBy(() -> new ThumbnailGenerator(store, Runnable::run, "thumb", 0.8f))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ThumbnailGenerator(store, Runnable::run, "original=100", 0.8f))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Path writePng(ImageStore store, int width, int height) throws Exception {
+        Path file = store.createTempFile();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", file.toFile());
+        return file;
+    }
+}
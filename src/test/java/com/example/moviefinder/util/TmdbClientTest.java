@@ -20,8 +20,10 @@ class TmdbClientTest {
     }
 
     @Test
-    void fetchMovieDetails_ShouldReturnImagesJson() throws Exception {
-        JSONObject details = tmdbClient.fetchMovieDetails(27205, "images"); // TMDb ID for Inception
-        assertThat(details.has("backdrops")).isTrue();
+    void fetchCombinedDetails_ShouldExtractAppendedResources() throws Exception {
+        TmdbDetails details = tmdbClient.fetchCombinedDetails(27205); // TMDb ID for Inception
+        assertThat(details.backdropPaths()).isNotEmpty().hasSizeLessThanOrEqualTo(3);
+        assertThat(details.keywords()).isNotEmpty().hasSizeLessThanOrEqualTo(3);
+        assertThat(details.similarTitles()).isNotEmpty().hasSizeLessThanOrEqualTo(3);
     }
 }
\ No newline at end of file
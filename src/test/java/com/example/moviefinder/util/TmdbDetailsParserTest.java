@@ -0,0 +1,92 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.TmdbApiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TmdbDetailsParserTest {
+
+    private static final String COMBINED_RESPONSE = """
+            {
+              "id": 27205,
+              "title": "Inception",
+              "genres": [{"id": 28, "name": "Action"}],
+              "images": {
+                "backdrops": [
+                  {"file_path": "/a.jpg", "width": 1920},
+                  {"file_path": "", "width": 1920},
+                  {"file_path": "/b.jpg", "width": 1920},
+                  {"file_path": "/c.jpg", "width": 1920},
+                  {"file_path": "/d.jpg", "width": 1920}
+                ],
+                "posters": [{"file_path": "/poster.jpg"}]
+              },
+              "keywords": {"keywords": [{"id": 1, "name": "dream"}, {"id": 2, "name": "heist"},
+                                        {"id": 3, "name": "subconscious"}, {"id": 4, "name": "paris"}]},
+              "similar": {"page": 1, "results": [{"title": "The Matrix", "genre_ids": [28]}, {"title": "Memento"}]},
+              "watch/providers": {"results": {"US": {"flatrate": [{"provider_name": "Netflix"}]}}},
+              "trailing": {"never": ["read"]}
+            }
+            """;
+
+    private static final String WATCH_PROVIDERS_RESPONSE = """
+            {
+              "id": 27205,
+              "results": {
+                "NL": {"flatrate": [{"provider_name": "Videoland"}]},
+                "US": {"link": "https://example.com", "flatrate": [{"provider_name": "Netflix"}, {"provider_name": "Max"}]}
+              }
+            }
+            """;
+
+    @Test
+    void parse_ShouldExtractOnlyTheFieldsNeededForAMovie() {
+        TmdbDetails details = TmdbDetailsParser.parse(COMBINED_RESPONSE);
+
+        assertThat(details.backdropPaths()).containsExactly("/a.jpg", "/b.jpg");
+        assertThat(details.keywords()).containsExactly("dream", "heist", "subconscious");
+        assertThat(details.similarTitles()).containsExactly("The Matrix", "Memento");
+        assertThat(details.watchProviders()).containsExactly("Netflix");
+    }
+
+    @Test
+    void parseWatchProviders_ShouldExtractUsFlatrateProviders() {
+        assertThat(TmdbDetailsParser.parseWatchProviders(WATCH_PROVIDERS_RESPONSE)).containsExactly("Netflix", "Max");
+        assertThat(TmdbDetailsParser.parseWatchProviders("{\"id\": 1, \"results\": {\"NL\": {}}}")).isEmpty();
+    }
+
+    @Test
+    void writeWatchProviders_ShouldBeReadBackByParseWatchProviders() {
+        String json = TmdbDetailsParser.writeWatchProviders(List.of("Netflix", "Max"));
+
+        assertThat(TmdbDetailsParser.parseWatchProviders(json)).containsExactly("Netflix", "Max");
+        assertThat(TmdbDetailsParser.parseWatchProviders(TmdbDetailsParser.writeWatchProviders(List.of()))).isEmpty();
+    }
+
+    @Test
+    void parse_ShouldStopAfterTheAppendedResources() {
+        // Everything after the last appended resource is never read, so trailing garbage is not noticed
+        String truncated = COMBINED_RESPONSE.substring(0, COMBINED_RESPONSE.indexOf("\"trailing\"")) + "!!!";
+
+        TmdbDetails details = TmdbDetailsParser.parse(truncated);
+
+        assertThat(details.similarTitles()).containsExactly("The Matrix", "Memento");
+    }
+
+    @Test
+    void parse_ShouldReturnEmptyListsForMissingResources() {
+        TmdbDetails details = TmdbDetailsParser.parse("{\"id\": 1, \"images\": {\"posters\": []}}");
+
+        assertThat(details).isEqualTo(TmdbDetails.EMPTY);
+    }
+
+    @Test
+    void parse_ShouldRejectInvalidJson() {
+        assertThatThrownBy(() -> TmdbDetailsParser.parse("not json"))
+                .isInstanceOf(TmdbApiException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.moviefinder.util;
+
+import com.example.moviefinder.exceptions.ConnectionPoolTimeoutException;
+import com.example.moviefinder.exceptions.UpstreamUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UpstreamGuardTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final UpstreamGuard guard = new UpstreamGuard("tmdb", 2, Duration.ofSeconds(30), 4, Duration.ZERO, clock);
+
+    @Test
+    void execute_ShouldOpenAfterConsecutiveFailuresAndRejectCalls() {
+        failOnce();
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+        failOnce();
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+
+        assertThatThrownBy(() -> guard.execute(() -> "ok"))
+                .isInstanceOf(UpstreamUnavailableException.class)
+                .hasMessageContaining("open");
+        assertThat(guard.stats()).containsEntry("shortCircuited", 1L).containsEntry("failures", 2L);
+    }
+
+    @Test
+    void execute_ShouldCloseAfterSuccessfulTrialCall() {
+        failOnce();
+        failOnce();
+        clock.advance(Duration.ofSeconds(31));
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.HALF_OPEN);
+
+        assertThat(guard.execute(() -> "ok")).isEqualTo("ok");
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void execute_ShouldReopenWhenTrialCallFails() {
+        failOnce();
+        failOnce();
+        clock.advance(Duration.ofSeconds(31));
+
+        failOnce();
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.OPEN);
+    }
+
+    @Test
+    void execute_ShouldNotCountClientErrorsAsFailures() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> guard.execute(() -> {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            })).isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void execute_ShouldTreatRateLimiterRejectionsAsNeutral() {
+        RateLimiter limiter = new RateLimiter("tmdb", 1, 1, Duration.ZERO, Duration.ofSeconds(1), 0, 0.5);
+        failOnce();
+        failOnce();
+        clock.advance(Duration.ofSeconds(31));
+
+        // The limiter has no spare capacity, so the call never reaches the API
+        assertThatThrownBy(() -> guard.execute(() -> limiter.executeWithSpareCapacity(() -> "ok")))
+                .isInstanceOf(UpstreamUnavailableException.class);
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.HALF_OPEN);
+        assertThat(guard.stats()).containsEntry("successes", 0L).containsEntry("failures", 2L);
+        assertThat(guard.execute(() -> "ok")).isEqualTo("ok");
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.CLOSED);
+    }
+
+    @Test
+    void execute_ShouldTreatConnectionPoolTimeoutsAsNeutral() {
+        failOnce();
+        failOnce();
+        clock.advance(Duration.ofSeconds(31));
+
+        assertThatThrownBy(() -> guard.execute(() -> {
+            throw new ConnectionPoolTimeoutException("Timed out waiting for a connection");
+        })).isInstanceOf(ConnectionPoolTimeoutException.class);
+
+        assertThat(guard.getState()).isEqualTo(UpstreamGuard.State.HALF_OPEN);
+        assertThat(guard.stats()).containsEntry("successes", 0L).containsEntry("failures", 2L);
+    }
+
+    @Test
+    void execute_ShouldNotHoldBulkheadSlotWhileWaitingForRateLimiter() throws Exception {
+        UpstreamGuard singleSlot = new UpstreamGuard("tmdb", 2, Duration.ofSeconds(30), 1, Duration.ZERO, clock);
+        RateLimiter limiter = new RateLimiter("tmdb", 5, 1, Duration.ofSeconds(1), Duration.ofSeconds(1), 0);
+        limiter.acquire();
+
+        // The first caller waits about 200 ms for a token; the slot stays free for the second caller meanwhile
+        Thread waiting = new Thread(() -> limiter.execute(() -> singleSlot.execute(() -> "ok")));
+        waiting.start();
+        Thread.sleep(50);
+        assertThat(singleSlot.execute(() -> "ok")).isEqualTo("ok");
+        waiting.join();
+
+        assertThat(singleSlot.stats()).containsEntry("successes", 2L).containsEntry("bulkheadRejected", 0L);
+    }
+
+    private void failOnce() {
+        assertThatThrownBy(() -> guard.execute(() -> {
+            throw new ResourceAccessException("Connection refused");
+        })).isInstanceOf(ResourceAccessException.class);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}